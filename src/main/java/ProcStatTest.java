@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+import taskmanager.platform.linux.ProcFileCache;
+import taskmanager.platform.linux.ProcessStatParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the allocations and time per tick of parsing /proc/[pid]/stat for all processes with split/parseLong and
+ * with {@link ProcessStatParser}, both when opening the files every tick and when keeping them open in a
+ * {@link ProcFileCache}. Linux only.
+ */
+public class ProcStatTest {
+	private static final int WARMUP_TICKS = 200;
+	private static final int TICKS = 1000;
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static long blackhole;
+
+	public static void main(String[] args) {
+		List<Path> paths = new ArrayList<>();
+		List<Long> pids = new ArrayList<>();
+		File[] files = new File("/proc").listFiles(f -> f.isDirectory() && f.getName().matches("[0-9]+"));
+		if (files != null) {
+			for (File file : files) {
+				paths.add(Path.of(file.getPath(), "stat"));
+				pids.add(Long.parseLong(file.getName()));
+			}
+		}
+		System.out.println("Processes: " + paths.size());
+
+		ProcessStatParser parser = new ProcessStatParser();
+		run("split", () -> {
+			for (Path path : paths) {
+				parseWithSplit(path);
+			}
+		});
+		run("parser", () -> {
+			for (Path path : paths) {
+				if (parser.read(path)) {
+					consume(parser);
+				}
+			}
+		});
+		ProcFileCache cache = new ProcFileCache("stat", 0.5f);
+		run("cached", () -> {
+			for (long pid : pids) {
+				if (parser.read(cache, pid)) {
+					consume(parser);
+				}
+			}
+		});
+	}
+
+	private static void consume(ProcessStatParser parser) {
+		if (parser.fieldCount() > ProcessStatParser.FIELD_START_TIME) {
+			blackhole += parser.state() + parser.field(ProcessStatParser.FIELD_PARENT_ID) + parser.field(ProcessStatParser.FIELD_USER_TIME) +
+					parser.field(ProcessStatParser.FIELD_SYSTEM_TIME) + parser.field(ProcessStatParser.FIELD_THREAD_COUNT) +
+					parser.field(ProcessStatParser.FIELD_START_TIME);
+		}
+	}
+
+	private static void parseWithSplit(Path path) {
+		String content;
+		try {
+			content = new String(Files.readAllBytes(path));
+		} catch (IOException e) {
+			return;
+		}
+		String[] stat = content.replaceAll("\\(.*\\)", "(cmd)").split("\\s+");
+		if (stat.length > 21) {
+			blackhole += stat[2].charAt(0) + Long.parseLong(stat[3]) + Long.parseLong(stat[13]) + Long.parseLong(stat[14]) +
+					Integer.parseInt(stat[19]) + Long.parseLong(stat[21]);
+		}
+	}
+
+	private static void run(String name, Runnable tick) {
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			tick.run();
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		for (int i = 0; i < TICKS; i++) {
+			tick.run();
+		}
+		long duration = System.nanoTime() - start;
+		long allocated = THREAD_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		System.out.printf("%-6s: %.3f ms/tick, %d bytes allocated/tick%n", name, duration / 1e6 / TICKS, allocated / TICKS);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+import taskmanager.data.Process;
+import taskmanager.data.SystemInformation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the time of copying the processes of one {@link SystemInformation} into another with the old nested loop
+ * merge and with {@link SystemInformation#copyFrom(SystemInformation)}. Between the copies a small part of the
+ * processes are replaced with new ones and some of the others are updated, the rest are idle and are skipped by the
+ * copy. Run with a large heap (e.g. -Xmx4g), each process keeps its measurements.
+ */
+public class ProcessCopyTest {
+	private static final int[] PROCESS_COUNTS = {10_000, 50_000, 100_000};
+	private static final double REPLACED_PER_TICK = 0.005;
+	private static final double UPDATED_PER_TICK = 0.1;
+	private static final int TICKS = 50;
+	private static final int NESTED_LOOP_TICKS = 2;
+
+	private static long nextUniqueId;
+	private static int nextUpdated;
+
+	public static void main(String[] args) {
+		for (int processCount : PROCESS_COUNTS) {
+			System.out.println("Processes: " + processCount);
+			SystemInformation source = new SystemInformation();
+			source.processesVersion++;
+			for (int i = 0; i < processCount; i++) {
+				Process process = new Process(nextUniqueId++, i);
+				process.version = source.processesVersion;
+				source.processes.add(process);
+			}
+
+			List<Process> nestedLoopTarget = new ArrayList<>();
+			nestedLoopCopy(source.processes, nestedLoopTarget);
+			run("nested", NESTED_LOOP_TICKS, source, () -> nestedLoopCopy(source.processes, nestedLoopTarget));
+
+			SystemInformation target = new SystemInformation();
+			for (int i = 0; i < TICKS; i++) {
+				target.copyFrom(source);
+				simulateTick(source);
+			}
+			run("indexed", TICKS, source, () -> target.copyFrom(source));
+		}
+	}
+
+	/**
+	 * The merge that was used before the process lists were indexed.
+	 */
+	private static void nestedLoopCopy(List<Process> source, List<Process> target) {
+		Set<Long> processIds = new HashSet<>();
+		for (Process processNew : source) {
+			Process process = null;
+			for (Process processOld : target) {
+				if (processNew.uniqueId == processOld.uniqueId) {
+					process = processOld;
+					break;
+				}
+			}
+			boolean isNew = false;
+			if (process == null) {
+				process = new Process(processNew.uniqueId, processNew.id);
+				target.add(process);
+				isNew = true;
+			}
+
+			processIds.add(process.uniqueId);
+			process.copyFrom(processNew, isNew);
+		}
+		target.removeIf(process -> !processIds.contains(process.uniqueId));
+	}
+
+	private static void simulateTick(SystemInformation systemInformation) {
+		systemInformation.processesVersion++;
+
+		int count = (int) (systemInformation.processes.size() * REPLACED_PER_TICK);
+		for (int i = 0; i < count; i++) {
+			Process process = systemInformation.processes.remove(0);
+			Process newProcess = new Process(nextUniqueId++, process.id);
+			newProcess.version = systemInformation.processesVersion;
+			systemInformation.processes.add(newProcess);
+		}
+
+		count = (int) (systemInformation.processes.size() * UPDATED_PER_TICK);
+		for (int i = 0; i < count; i++) {
+			Process process = systemInformation.processes.get(nextUpdated++ % systemInformation.processes.size());
+			process.cpuUsage.addValue(i);
+			process.cpuTime.addValue(i);
+			process.version = systemInformation.processesVersion;
+		}
+	}
+
+	private static void run(String name, int ticks, SystemInformation source, Runnable copy) {
+		long duration = 0;
+		for (int i = 0; i < ticks; i++) {
+			simulateTick(source);
+			long start = System.nanoTime();
+			copy.run();
+			duration += System.nanoTime() - start;
+		}
+		System.out.printf("  %-7s: %.3f ms/copy%n", name, duration / 1e6 / ticks);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+import taskmanager.TieredLongMeasurementContainer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the values read back from a {@link TieredLongMeasurementContainer} with the naive average of the raw
+ * values that each bucket covers, after every added value. The containers round the averages down once per tier so
+ * the difference must not be larger than the number of tiers.
+ */
+public class TieredRollupTest {
+	private static final int VALUES = 5_000;
+
+	public static void main(String[] args) {
+		long[] ramp = new long[21];
+		for (int i = 0; i < ramp.length; i++) {
+			ramp[i] = 10 * (i + 1);
+		}
+		TieredLongMeasurementContainer example = new TieredLongMeasurementContainer(4, 1, new int[][] {{2, 10}}, 0);
+		for (long value : ramp) {
+			example.addValue(value);
+		}
+		long[] result = new long[example.size()];
+		example.readRange(0, result.length - 1, result);
+		System.out.println("Ramp: " + Arrays.toString(result));
+
+		Random random = new Random(1);
+		long[] steps = new long[VALUES];
+		long[] noise = new long[VALUES];
+		for (int i = 0; i < VALUES; i++) {
+			steps[i] = (i / 7 % 3) * 1000;
+			noise[i] = random.nextInt(100_000);
+		}
+
+		int[][][] specifications = {
+				{{2, 10}},
+				{{3, 40}, {9, 200}},
+				{{4, 60}, {8, 300}, {40, 1000}}
+		};
+		boolean failed = false;
+		for (int[][] specification : specifications) {
+			failed |= !check("steps", 4, specification, steps);
+			failed |= !check("noise", 16, specification, noise);
+		}
+		System.out.println(failed ? "FAILED" : "OK");
+	}
+
+	private static boolean check(String name, int rawSize, int[][] specification, long[] values) {
+		TieredLongMeasurementContainer container = new TieredLongMeasurementContainer(rawSize, 1, specification, 0);
+		int[] groupSizes = new int[specification.length];
+		int[] bucketSizes = new int[specification.length];
+		int[] buckets = new int[specification.length];
+		int covered = rawSize;
+		int previousBucketSize = 1;
+		for (int i = 0; i < specification.length; i++) {
+			groupSizes[i] = Math.max(1, specification[i][0] / previousBucketSize);
+			bucketSizes[i] = groupSizes[i] * previousBucketSize;
+			buckets[i] = Math.max(1, (specification[i][1] - covered) / bucketSizes[i]);
+			previousBucketSize = bucketSizes[i];
+			covered += buckets[i] * bucketSizes[i];
+		}
+
+		// The history starts with default values for the whole retention, they are rolled up like any other values
+		long[] history = new long[covered + values.length];
+		long[] actual = new long[container.size()];
+		long[] expected = new long[container.size()];
+		long maxError = 0;
+		for (int n = 0; n < values.length; n++) {
+			container.addValue(values[n]);
+			history[covered + n] = values[n];
+			int end = covered + n + 1;
+
+			Arrays.fill(expected, Long.MIN_VALUE);
+			int index = expected.length;
+			index = fill(expected, index, history, end, rawSize, 1);
+			end -= rawSize;
+			long received = end - (covered - rawSize);
+			int previous = 1;
+			for (int i = 0; i < specification.length; i++) {
+				int pending = (int) (received % groupSizes[i]);
+				index = fill(expected, index, history, end, pending * previous, pending * previous);
+				end -= pending * previous;
+				index = fill(expected, index, history, end, buckets[i] * bucketSizes[i], bucketSizes[i]);
+				end -= buckets[i] * bucketSizes[i];
+				received /= groupSizes[i];
+				previous = bucketSizes[i];
+			}
+
+			container.readRange(0, actual.length - 1, actual);
+			for (int i = 0; i < actual.length; i++) {
+				maxError = Math.max(maxError, Math.abs(actual[i] - expected[i]));
+			}
+		}
+
+		boolean ok = maxError <= specification.length;
+		System.out.println(name + " " + Arrays.deepToString(specification) + ": max error " + maxError + (ok ? "" : " FAILED"));
+		return ok;
+	}
+
+	/**
+	 * Fills the indices before index with the averages of the groups of groupSize values that end at end in the
+	 * history, newest first. Returns the index of the last filled value.
+	 */
+	private static int fill(long[] expected, int index, long[] history, int end, int count, int groupSize) {
+		for (int groupEnd = end; groupEnd > end - count; groupEnd -= groupSize) {
+			long sum = 0;
+			for (int i = groupEnd - groupSize; i < groupEnd; i++) {
+				sum += history[i];
+			}
+			for (int i = 0; i < groupSize && index > 0; i++) {
+				expected[--index] = sum / groupSize;
+			}
+		}
+		return index;
+	}
+}
@@ -57,7 +57,21 @@ public class Config {
 	public static final String KEY_TRAY_GRAPH = "trayGraph";
 
 	public static final String KEY_UPDATE_RATE = "updateRate";
+	public static final String KEY_CPU_UPDATE_RATE = "cpuUpdateRate";
+	public static final String KEY_MEMORY_UPDATE_RATE = "memoryUpdateRate";
+	public static final String KEY_NETWORK_UPDATE_RATE = "networkUpdateRate";
+	public static final String KEY_DISK_UPDATE_RATE = "diskUpdateRate";
+	public static final String KEY_GPU_UPDATE_RATE = "gpuUpdateRate";
+	public static final String KEY_PROCESS_UPDATE_RATE = "processUpdateRate";
+	public static final String KEY_BACKGROUND_UPDATE_INTERVAL = "backgroundUpdateInterval";
+	public static final String KEY_COLLECTION_OVERRUN_POLICY = "collectionOverrunPolicy";
+	public static final String KEY_IDLE_PROCESS_THRESHOLD = "idleProcessThreshold";
+	public static final String KEY_IDLE_PROCESS_SAMPLE_PERIOD = "idleProcessSamplePeriod";
+	public static final String KEY_PROCESS_ATTRIBUTE_TIME_BUDGET = "processAttributeTimeBudget";
+	public static final String KEY_PROCESS_READ_TIMEOUT = "processReadTimeout";
 	public static final String KEY_MAXIMUM_MEASURMENT_BUFFER_SIZE = "maximumMeasurementBufferSize";
+	public static final String KEY_COMPRESS_MEASUREMENTS = "compressMeasurements";
+	public static final String KEY_MEASUREMENT_ROLLUP_TIERS = "measurementRollupTiers";
 	public static final String KEY_GRAPH_MAX_PIXELS_PER_SEGMENT = "maxPixelsPerSegment";
 	public static final String KEY_METRIC_TOP_LIST_SIZE = "metricTopListSize";
 
@@ -134,7 +148,21 @@ public class Config {
 		PROPERTIES.put(KEY_LAST_SELECTION_INVERTED, "false");
 		PROPERTIES.put(KEY_LAST_DEAD_SELECTION_INVERTED, "true");
 		PROPERTIES.put(KEY_UPDATE_RATE, "1.0");
+		PROPERTIES.put(KEY_CPU_UPDATE_RATE, ""); // Empty to use the update rate
+		PROPERTIES.put(KEY_MEMORY_UPDATE_RATE, "");
+		PROPERTIES.put(KEY_NETWORK_UPDATE_RATE, "");
+		PROPERTIES.put(KEY_DISK_UPDATE_RATE, "");
+		PROPERTIES.put(KEY_GPU_UPDATE_RATE, "");
+		PROPERTIES.put(KEY_PROCESS_UPDATE_RATE, "");
+		PROPERTIES.put(KEY_BACKGROUND_UPDATE_INTERVAL, "60"); // Seconds between process scans when minimized to the tray
+		PROPERTIES.put(KEY_COLLECTION_OVERRUN_POLICY, "Skip"); // Skip, CatchUp or Stretch
+		PROPERTIES.put(KEY_IDLE_PROCESS_THRESHOLD, "10"); // Process scans without activity before a process is idle
+		PROPERTIES.put(KEY_IDLE_PROCESS_SAMPLE_PERIOD, "5"); // Idle processes are read every n scans, 1 to disable
+		PROPERTIES.put(KEY_PROCESS_ATTRIBUTE_TIME_BUDGET, "20"); // Milliseconds per scan for the names etc. of new processes
+		PROPERTIES.put(KEY_PROCESS_READ_TIMEOUT, "100"); // Milliseconds before a read that may block is given up
 		PROPERTIES.put(KEY_MAXIMUM_MEASURMENT_BUFFER_SIZE, "3600");
+		PROPERTIES.put(KEY_COMPRESS_MEASUREMENTS, "false");
+		PROPERTIES.put(KEY_MEASUREMENT_ROLLUP_TIERS, ""); // E.g. "10:86400;60:2592000" for 10 s buckets for a day and 1 min for 30 days
 		PROPERTIES.put(KEY_GRAPH_MAX_PIXELS_PER_SEGMENT, "2");
 		PROPERTIES.put(KEY_METRIC_TOP_LIST_SIZE, "3");
 		PROPERTIES.put(KEY_LINK_TIMELINES, "true");
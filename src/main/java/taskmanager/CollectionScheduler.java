@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed rate scheduler for the data collection. Ticks are aligned to absolute deadlines measured with
+ * {@link System#nanoTime()}, so the rate does not drift. A tick that ends after the deadline of the next tick is an
+ * overrun, which is handled according to the {@link OverrunPolicy}.
+ */
+public class CollectionScheduler {
+	private static final int TICK_HISTORY = 64;
+	private static final int MAX_CATCH_UP_TICKS = 5;
+
+	public enum OverrunPolicy {
+		/** Skip the ticks that were missed and continue at the next deadline */
+		Skip,
+		/** Run the missed ticks immediately (if only a few ticks behind, otherwise skip) */
+		CatchUp,
+		/** Start the next tick immediately and align the following ticks to that */
+		Stretch
+	}
+
+	private final long periodNanos;
+	private final OverrunPolicy policy;
+
+	private long tickDeadline;
+	private long tickStart;
+
+	private long ticks;
+	private long overruns;
+	private long skippedTicks;
+
+	// The start and end times of the latest ticks, tick n is at index n % TICK_HISTORY
+	private final long[] tickStartTimes;
+	private final long[] tickEndTimes;
+
+	public CollectionScheduler(float updateRate, OverrunPolicy policy) {
+		this.periodNanos = (long) (1_000_000_000L / updateRate);
+		this.policy = policy;
+		tickStartTimes = new long[TICK_HISTORY];
+		tickEndTimes = new long[TICK_HISTORY];
+		tickDeadline = System.nanoTime();
+	}
+
+	/**
+	 * Waits until the deadline of the next tick.
+	 */
+	public void awaitNextTick() {
+		long now = System.nanoTime();
+		while (now - tickDeadline < 0) {
+			LockSupport.parkNanos(tickDeadline - now);
+			now = System.nanoTime();
+		}
+
+		tickStart = now;
+		tickStartTimes[(int) (ticks % TICK_HISTORY)] = now;
+	}
+
+	/**
+	 * Marks the end of the current tick and computes the deadline of the next one, returns the duration of the tick
+	 * in nanoseconds.
+	 */
+	public long tickFinished() {
+		long now = System.nanoTime();
+		tickEndTimes[(int) (ticks % TICK_HISTORY)] = now;
+		ticks++;
+
+		tickDeadline += periodNanos;
+		if (now - tickDeadline > 0) {
+			overruns++;
+			long missedTicks = (now - tickDeadline) / periodNanos;
+			if (policy == OverrunPolicy.Stretch) {
+				tickDeadline = now;
+			} else if (policy == OverrunPolicy.Skip || missedTicks >= MAX_CATCH_UP_TICKS) {
+				tickDeadline += (missedTicks + 1) * periodNanos;
+				skippedTicks += missedTicks + 1;
+			}
+		}
+
+		return now - tickStart;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getOverruns() {
+		return overruns;
+	}
+
+	public long getSkippedTicks() {
+		return skippedTicks;
+	}
+
+	/**
+	 * Returns the start time (in {@link System#nanoTime()}) of one of the latest ticks, 0 is the newest.
+	 */
+	public long getTickStartTime(int ticksAgo) {
+		return tickStartTimes[(int) ((ticks - 1 - ticksAgo) % TICK_HISTORY)];
+	}
+
+	public long getTickEndTime(int ticksAgo) {
+		return tickEndTimes[(int) ((ticks - 1 - ticksAgo) % TICK_HISTORY)];
+	}
+
+	public int getTickHistoryLength() {
+		return (int) Math.min(ticks, TICK_HISTORY);
+	}
+}
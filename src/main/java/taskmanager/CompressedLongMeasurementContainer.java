@@ -0,0 +1,613 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Long measurements stored in compressed blocks, intended for long measurement buffers (e.g. a day of samples).
+ * <p>
+ * Values are collected in an uncompressed tail block. When the tail is full it is sealed into an immutable block
+ * where each value is stored as the delta-of-delta to the previous values with a variable length bit code (as in
+ * Facebook's Gorilla time series database), runs of unchanged deltas collapse to a few bits. Each sealed block
+ * also stores its min, max and sum so range queries only decode the blocks at the edges of the range. Consecutive
+ * blocks with identical contents share the same array, which makes idle series almost free.
+ */
+public class CompressedLongMeasurementContainer implements LongMeasurements {
+	static final int BLOCK_SIZE = 128;
+
+	// Layout of a sealed block, followed by the bit stream
+	private static final int BLOCK_MIN = 0;
+	private static final int BLOCK_MAX = 1;
+	private static final int BLOCK_SUM = 2;
+	private static final int BLOCK_HEADER_SIZE = 3;
+
+	private final int size;
+	private final int samplePeriod;
+	private final long defaultValue;
+
+	// Sealed blocks, block number firstBlock is stored at index firstBlock % blocks.length
+	private final long[][] blocks;
+	private int firstBlock;
+	private int blockCount;
+
+	private final long[] tail;
+	private int time;
+
+	// The most recently decoded block, reused by consecutive range queries
+	private long[] decodedValues;
+	private long[] decodedBlock;
+
+	public CompressedLongMeasurementContainer(long defaultValue) {
+		this(Subsystem.historyLength(), defaultValue);
+	}
+
+	public CompressedLongMeasurementContainer(int size, long defaultValue) {
+		this(size, 1, defaultValue);
+	}
+
+	public CompressedLongMeasurementContainer(int size, int samplePeriod, long defaultValue) {
+		this.size = size;
+		this.samplePeriod = samplePeriod;
+		this.defaultValue = defaultValue;
+		blocks = new long[(size + BLOCK_SIZE - 1) / BLOCK_SIZE + 2][];
+		tail = new long[BLOCK_SIZE];
+	}
+
+	@Override
+	public synchronized void copyFrom(Measurements<Long> otherRaw) {
+		CompressedLongMeasurementContainer other = checkCompatible(otherRaw);
+
+		synchronized (other) {
+			// Sealed blocks are immutable, so they are shared instead of copied
+			System.arraycopy(other.blocks, 0, blocks, 0, blocks.length);
+			firstBlock = other.firstBlock;
+			blockCount = other.blockCount;
+			System.arraycopy(other.tail, 0, tail, 0, tail.length);
+			time = other.time;
+		}
+	}
+
+	@Override
+	public synchronized void copyDelta(Measurements<Long> otherRaw) {
+		CompressedLongMeasurementContainer other = checkCompatible(otherRaw);
+
+		synchronized (other) {
+			int nextBlock = firstBlock + blockCount;
+			if (other.time < time || nextBlock < other.firstBlock) {
+				copyFrom(other);
+				return;
+			}
+
+			while (blockCount > 0 && firstBlock < other.firstBlock) {
+				dropFirstBlock();
+			}
+			if (blockCount == 0) {
+				firstBlock = other.firstBlock;
+			}
+			for (int block = nextBlock; block < other.firstBlock + other.blockCount; block++) {
+				blocks[block % blocks.length] = other.blocks[block % blocks.length];
+				blockCount++;
+			}
+
+			int tailStart = time / BLOCK_SIZE == other.time / BLOCK_SIZE ? time % BLOCK_SIZE : 0;
+			System.arraycopy(other.tail, tailStart, tail, tailStart, other.time % BLOCK_SIZE - tailStart);
+			time = other.time;
+		}
+	}
+
+	private CompressedLongMeasurementContainer checkCompatible(Measurements<Long> otherRaw) {
+		if (!(otherRaw instanceof CompressedLongMeasurementContainer))
+			throw new IllegalArgumentException("Argument must be a CompressedLongMeasurementContainer!");
+
+		if (otherRaw.size() != size())
+			throw new IllegalArgumentException("Sizes must be equal!");
+
+		return (CompressedLongMeasurementContainer) otherRaw;
+	}
+
+	@Override
+	public void addValue(Long value) {
+		addValue(value.longValue());
+	}
+
+	@Override
+	public synchronized void addValue(long value) {
+		tail[time % BLOCK_SIZE] = value;
+		time += 1;
+
+		if (time % BLOCK_SIZE == 0) {
+			sealTail();
+		}
+
+		while (blockCount > 0 && (firstBlock + 1) * BLOCK_SIZE <= time - size) {
+			dropFirstBlock();
+		}
+	}
+
+	private void sealTail() {
+		long[] block = encode(tail);
+		if (blockCount > 0) {
+			long[] previous = blocks[(firstBlock + blockCount - 1) % blocks.length];
+			if (Arrays.equals(previous, block)) {
+				block = previous;
+			}
+		} else {
+			firstBlock = time / BLOCK_SIZE - 1;
+		}
+		blocks[(firstBlock + blockCount) % blocks.length] = block;
+		blockCount++;
+	}
+
+	private void dropFirstBlock() {
+		blocks[firstBlock % blocks.length] = null;
+		firstBlock++;
+		blockCount--;
+	}
+
+	/**
+	 * Returns the first time that is stored, older values are the default value.
+	 */
+	private int firstStoredTime() {
+		return blockCount > 0 ? firstBlock * BLOCK_SIZE : time - time % BLOCK_SIZE;
+	}
+
+	private int tailStartTime() {
+		return time - time % BLOCK_SIZE;
+	}
+
+	private long[] blockAt(int t) {
+		return blocks[(t / BLOCK_SIZE) % blocks.length];
+	}
+
+	private long valueAt(int t) {
+		if (t < firstStoredTime()) {
+			return defaultValue;
+		} else if (t >= tailStartTime()) {
+			return tail[t % BLOCK_SIZE];
+		}
+		return decoded(blockAt(t))[t % BLOCK_SIZE];
+	}
+
+	private long[] decoded(long[] block) {
+		if (decodedBlock != block) {
+			if (decodedValues == null) {
+				decodedValues = new long[BLOCK_SIZE];
+			}
+			BlockDecoder decoder = new BlockDecoder(block);
+			for (int i = 0; i < BLOCK_SIZE; i++) {
+				decodedValues[i] = decoder.next();
+			}
+			decodedBlock = block;
+		}
+		return decodedValues;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int samplePeriod() {
+		return samplePeriod;
+	}
+
+	@Override
+	public int version() {
+		return time;
+	}
+
+	@Override
+	public synchronized int realSize() {
+		return blockCount * BLOCK_SIZE + time % BLOCK_SIZE;
+	}
+
+	@Override
+	public Long newest() {
+		return newestValue();
+	}
+
+	@Override
+	public synchronized long newestValue() {
+		return time == 0 ? defaultValue : valueAt(time - 1);
+	}
+
+	@Override
+	public Long oldest() {
+		return oldestValue();
+	}
+
+	@Override
+	public synchronized long oldestValue() {
+		// Before the buffer is full the oldest value is a default value
+		return time < size ? defaultValue : valueAt(time - size);
+	}
+
+	@Override
+	public Long max() {
+		return maxValue();
+	}
+
+	@Override
+	public synchronized long maxValue() {
+		return maxValue(0, size - 1);
+	}
+
+	@Override
+	public Long min() {
+		return minValue();
+	}
+
+	@Override
+	public synchronized long minValue() {
+		return minValue(0, size - 1);
+	}
+
+	@Override
+	public Long max(int startIndex, int endIndex) {
+		return maxValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long maxValue(int startIndex, int endIndex) {
+		return aggregate(startIndex, endIndex, BLOCK_MAX);
+	}
+
+	@Override
+	public Long min(int startIndex, int endIndex) {
+		return minValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long minValue(int startIndex, int endIndex) {
+		return aggregate(startIndex, endIndex, BLOCK_MIN);
+	}
+
+	@Override
+	public synchronized long sum(int startIndex, int endIndex) {
+		return aggregate(startIndex, endIndex, BLOCK_SUM);
+	}
+
+	@Override
+	public synchronized void averageRange(int startIndex, int stepSize, int steps, long[] destination) {
+		if (steps == 0) {
+			return;
+		}
+		checkRange(startIndex, startIndex + stepSize * steps - 1);
+		for (int i = 0; i < steps; i++) {
+			int start = startIndex + i * stepSize;
+			destination[i] = aggregate(start, start + stepSize - 1, BLOCK_SUM) / stepSize;
+		}
+	}
+
+	/**
+	 * Aggregates the range using the block headers for whole blocks, only the blocks at the edges are decoded.
+	 */
+	private long aggregate(int startIndex, int endIndex, int type) {
+		checkRange(startIndex, endIndex);
+
+		long result = type == BLOCK_MIN ? Long.MAX_VALUE : (type == BLOCK_MAX ? Long.MIN_VALUE : 0);
+		int t = time - size + startIndex;
+		int endTime = time - size + endIndex;
+		while (t <= endTime) {
+			long[] block = t >= firstStoredTime() && t < tailStartTime() ? blockAt(t) : null;
+			if (block != null && t % BLOCK_SIZE == 0 && t + BLOCK_SIZE - 1 <= endTime) {
+				result = combine(result, block[type], type);
+				t += BLOCK_SIZE;
+			} else {
+				result = combine(result, valueAt(t), type);
+				t += 1;
+			}
+		}
+		return result;
+	}
+
+	private static long combine(long result, long value, int type) {
+		switch (type) {
+			case BLOCK_MIN:
+				return Math.min(result, value);
+			case BLOCK_MAX:
+				return Math.max(result, value);
+			default:
+				return result + value;
+		}
+	}
+
+	private void checkRange(int startIndex, int endIndex) {
+		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
+			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
+	}
+
+	@Override
+	public synchronized void readRange(int startIndex, int endIndex, long[] destination) {
+		checkRange(startIndex, endIndex);
+		int startTime = time - size + startIndex;
+		int endTime = time - size + endIndex;
+
+		int t = startTime;
+		while (t <= endTime) {
+			if (t >= firstStoredTime() && t < tailStartTime()) {
+				// Decode each block once, straight into the destination
+				BlockDecoder decoder = new BlockDecoder(blockAt(t));
+				int blockStart = t - t % BLOCK_SIZE;
+				int blockEnd = Math.min(blockStart + BLOCK_SIZE - 1, endTime);
+				for (int i = blockStart; i <= blockEnd; i++) {
+					long value = decoder.next();
+					if (i >= t) {
+						destination[i - startTime] = value;
+					}
+				}
+				t = blockEnd + 1;
+			} else {
+				destination[t - startTime] = valueAt(t);
+				t++;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void readRange(int startIndex, int endIndex, Long[] destination) {
+		long[] values = new long[endIndex - startIndex + 1];
+		readRange(startIndex, endIndex, values);
+		for (int i = 0; i < values.length; i++) {
+			destination[i] = values[i];
+		}
+	}
+
+	@Override
+	public synchronized Iterator<Long> getRangeIterator(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		return new DataIterator(time - size + startIndex, time - size + endIndex);
+	}
+
+	static long[] encode(long[] values) {
+		BlockEncoder encoder = new BlockEncoder();
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		long sum = 0;
+		for (long value : values) {
+			encoder.add(value);
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			sum += value;
+		}
+
+		long[] block = encoder.finish(BLOCK_HEADER_SIZE);
+		block[BLOCK_MIN] = min;
+		block[BLOCK_MAX] = max;
+		block[BLOCK_SUM] = sum;
+		return block;
+	}
+
+
+	private class DataIterator implements Iterator<Long> {
+		private int t;
+		private final int end;
+
+		private long[] block;
+		private BlockDecoder decoder;
+		private int decoderTime;
+
+		public DataIterator(int start, int end) {
+			this.t = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return t <= end;
+		}
+
+		@Override
+		public Long next() {
+			if (!hasNext())
+				throw new IllegalStateException("The iterator is empty!");
+
+			long dataPoint;
+
+			synchronized (CompressedLongMeasurementContainer.this) {
+				if (t < firstStoredTime()) {
+					dataPoint = defaultValue;
+				} else if (t >= tailStartTime()) {
+					dataPoint = tail[t % BLOCK_SIZE];
+				} else {
+					long[] current = blockAt(t);
+					if (current != block || decoderTime > t) {
+						block = current;
+						decoder = new BlockDecoder(block);
+						decoderTime = t - t % BLOCK_SIZE;
+					}
+					dataPoint = 0;
+					while (decoderTime <= t) {
+						dataPoint = decoder.next();
+						decoderTime++;
+					}
+				}
+			}
+
+			t += 1;
+			return dataPoint;
+		}
+	}
+
+
+	/*
+	 * Bit codes, each value is stored as the delta-of-delta to the previous two values. The first value is stored as is
+	 * and the second one as a delta:
+	 *   0                    single zero
+	 *   10      + 7 bits     [-64, 63]
+	 *   110     + 9 bits     [-256, 255]
+	 *   1110    + 12 bits    [-2048, 2047]
+	 *   11110   + 32 bits    int range
+	 *   111110  + 64 bits    any other value
+	 *   111111  + 8 bits     run of 1-256 zeros
+	 */
+
+	private static class BlockEncoder {
+		private static final int MIN_ZERO_RUN = 8;
+
+		private long[] words = new long[8];
+		private int bitLength;
+
+		private int count;
+		private long previous;
+		private long previousDelta;
+		private int zeroRun;
+
+		void add(long value) {
+			if (count == 0) {
+				write(value, 64);
+			} else {
+				long delta = value - previous;
+				encode(count == 1 ? delta : delta - previousDelta);
+				previousDelta = delta;
+			}
+			previous = value;
+			count++;
+		}
+
+		private void encode(long value) {
+			if (value == 0) {
+				zeroRun++;
+				if (zeroRun == 256) {
+					flushZeros();
+				}
+				return;
+			}
+
+			flushZeros();
+			if (value >= -64 && value < 64) {
+				write(0b10, 2);
+				write(value, 7);
+			} else if (value >= -256 && value < 256) {
+				write(0b110, 3);
+				write(value, 9);
+			} else if (value >= -2048 && value < 2048) {
+				write(0b1110, 4);
+				write(value, 12);
+			} else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+				write(0b11110, 5);
+				write(value, 32);
+			} else {
+				write(0b111110, 6);
+				write(value, 64);
+			}
+		}
+
+		private void flushZeros() {
+			if (zeroRun >= MIN_ZERO_RUN) {
+				write(0b111111, 6);
+				write(zeroRun - 1, 8);
+			} else {
+				for (int i = 0; i < zeroRun; i++) {
+					write(0, 1);
+				}
+			}
+			zeroRun = 0;
+		}
+
+		private void write(long bits, int length) {
+			for (int i = length - 1; i >= 0; i--) {
+				int word = bitLength >>> 6;
+				if (word == words.length) {
+					words = Arrays.copyOf(words, words.length * 2);
+				}
+				if (((bits >>> i) & 1) != 0) {
+					words[word] |= 1L << (63 - (bitLength & 63));
+				}
+				bitLength++;
+			}
+		}
+
+		long[] finish(int headerSize) {
+			flushZeros();
+			long[] block = new long[headerSize + (bitLength + 63) / 64];
+			System.arraycopy(words, 0, block, headerSize, block.length - headerSize);
+			return block;
+		}
+	}
+
+
+	private static class BlockDecoder {
+		private final long[] block;
+		private int bitPosition;
+
+		private int count;
+		private long previous;
+		private long previousDelta;
+		private int zeroRun;
+
+		BlockDecoder(long[] block) {
+			this.block = block;
+		}
+
+		long next() {
+			long value;
+			if (count == 0) {
+				value = read(64);
+			} else {
+				long delta = count == 1 ? decode() : previousDelta + decode();
+				value = previous + delta;
+				previousDelta = delta;
+			}
+			previous = value;
+			count++;
+			return value;
+		}
+
+		private long decode() {
+			if (zeroRun > 0) {
+				zeroRun--;
+				return 0;
+			}
+
+			int ones = 0;
+			while (ones < 6 && read(1) == 1) {
+				ones++;
+			}
+			switch (ones) {
+				case 0:
+					return 0;
+				case 1:
+					return signed(read(7), 7);
+				case 2:
+					return signed(read(9), 9);
+				case 3:
+					return signed(read(12), 12);
+				case 4:
+					return signed(read(32), 32);
+				case 5:
+					return read(64);
+				default:
+					zeroRun = (int) read(8);
+					return 0;
+			}
+		}
+
+		private long read(int length) {
+			long result = 0;
+			for (int i = 0; i < length; i++) {
+				long word = block[BLOCK_HEADER_SIZE + (bitPosition >>> 6)];
+				result = (result << 1) | ((word >>> (63 - (bitPosition & 63))) & 1);
+				bitPosition++;
+			}
+			return result;
+		}
+
+		private static long signed(long bits, int length) {
+			return (bits << (64 - length)) >> (64 - length);
+		}
+	}
+}
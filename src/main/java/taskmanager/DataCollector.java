@@ -20,24 +20,56 @@ import taskmanager.platform.linux.LinuxInformationLoader;
 import taskmanager.platform.osx.OsXInformationLoader;
 import taskmanager.platform.win32.WindowsInformationLoader;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects data in the background and publishes snapshots of it to the UI through a triple buffer: the collector
+ * writes to the back buffer and swaps it with the middle buffer, the UI swaps its front buffer with the middle buffer
+ * when a new snapshot is available. The buffers are only swapped atomically, so neither side ever waits for the other.
+ */
 public class DataCollector extends Thread {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DataCollector.class);
 
+	private static final int BUFFER_INDEX_MASK = 3;
+	private static final int NEW_SNAPSHOT = 4;
+
+	private static final int OVERRUN_LOG_TICKS = 8; // Number of ticks to log when a tick overruns
+	private static final long OVERRUN_LOG_INTERVAL = 60_000_000_000L; // Nanoseconds between two overrun logs
+
 	private final InformationUpdateCallback uiCallback;
 
 	private final SystemInformation systemInformationPrivate;
-	private final SystemInformation systemInformationShared;
-	private boolean isTransferLocked;
+
+	private final SystemInformation[] snapshots;
+	private final long[] snapshotPublishTimes;
+	private final AtomicInteger middleSnapshot; // Index of the middle buffer, plus NEW_SNAPSHOT if it is unread
+	private int backSnapshot; // Only used by the collector
+	private int frontSnapshot; // Only used by the UI
 
 	private final InformationLoader loader;
 
+	private final StageStatistics tickStatistics = StageStatistics.of("Tick");
+	private final StageStatistics snapshotStatistics = StageStatistics.of("Snapshot copy");
+
 	private int numDataFetches = 0;
 	private long totalDataFetchTime = 0;
+	private int numDroppedSnapshots = 0;
+	private long lastOverrunLogTime;
+
+	// Only used by the UI
+	private boolean isFrontSnapshotShown = true;
+	private int numSnapshotsTaken = 0;
+	private long totalPublishLatency = 0;
+	private long maxPublishLatency = 0;
 
 	public DataCollector(InformationUpdateCallback uiCallback) {
 		this.uiCallback = uiCallback;
 		this.systemInformationPrivate = new SystemInformation();
-		this.systemInformationShared = new SystemInformation();
+		this.snapshots = new SystemInformation[] {new SystemInformation(), new SystemInformation(), new SystemInformation()};
+		this.snapshotPublishTimes = new long[snapshots.length];
+		this.backSnapshot = 0;
+		this.middleSnapshot = new AtomicInteger(1);
+		this.frontSnapshot = 2;
 		this.loader = createInformationLoader();
 	}
 
@@ -53,48 +85,76 @@ public class DataCollector extends Thread {
 		}
 	}
 
-	public synchronized void lockTransfer() {
-		while (isTransferLocked) {
-			try {
-				wait();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
-
-		isTransferLocked = true;
-	}
-
-	public synchronized void unlockTransfer() {
-		isTransferLocked = false;
-		notifyAll();
-	}
-
 	public SystemInformation init() {
 		loader.init(systemInformationPrivate);
 		// TODO This adds an extra measurement which causes the first two to have a time difference of 0 sec.
 		//  Is this bad? Could be a good thing since the first measurements are 0 or incorrect?
 		updateSystemInformation();
-		return systemInformationShared;
+		return takeSnapshot();
+	}
+
+	/**
+	 * Switches to background mode when the UI is hidden, the expensive parts of the collection (like the process
+	 * scan) are then only done at a long interval. Thread safe.
+	 */
+	public void setInBackground(boolean isInBackground) {
+		loader.setInBackground(isInBackground);
+	}
+
+	/**
+	 * Returns the newest published snapshot. The snapshot must only be used by the UI thread and only until the next
+	 * call to this method.
+	 */
+	public SystemInformation takeSnapshot() {
+		if ((middleSnapshot.get() & NEW_SNAPSHOT) != 0) {
+			frontSnapshot = middleSnapshot.getAndSet(frontSnapshot) & BUFFER_INDEX_MASK;
+			isFrontSnapshotShown = false;
+		}
+		return snapshots[frontSnapshot];
+	}
+
+	/**
+	 * Called by the UI thread when the snapshot from {@link #takeSnapshot()} has been shown, i.e. copied into the UI
+	 * model or drawn. The publish latency is measured from the end of the tick until then.
+	 */
+	public void snapshotShown() {
+		if (isFrontSnapshotShown) {
+			return;
+		}
+		isFrontSnapshotShown = true;
+
+		long latency = System.nanoTime() - snapshotPublishTimes[frontSnapshot];
+		totalPublishLatency += latency;
+		maxPublishLatency = Math.max(maxPublishLatency, latency);
+		if (numSnapshotsTaken++ % 1000 == 0) {
+			LOGGER.info("Snapshot publish latency: {}ms (avg: {}ms, max: {}ms, shown: {})",
+					String.format("%.1f", latency / 1e6), String.format("%.1f", totalPublishLatency / 1e6 / numSnapshotsTaken),
+					String.format("%.1f", maxPublishLatency / 1e6), numSnapshotsTaken);
+		}
 	}
 
 	@Override
 	public void run() {
 		try {
+			CollectionScheduler scheduler = new CollectionScheduler(Subsystem.tickRate(), overrunPolicy());
 			do {
-				long startTime = System.currentTimeMillis();
-				updateSystemInformation();
+				scheduler.awaitNextTick();
+				tickStatistics.measure(this::updateSystemInformation);
+				if (Thread.currentThread().isInterrupted()) {
+					LOGGER.info("Data collection interrupted, stopping");
+					return;
+				}
 				updateUi();
-				long delta = System.currentTimeMillis() - startTime;
+				long overruns = scheduler.getOverruns();
+				long delta = scheduler.tickFinished() / 1_000_000;
+				if (scheduler.getOverruns() != overruns) {
+					logOverrun(scheduler);
+				}
 				totalDataFetchTime += delta;
 				if (numDataFetches++ % 1000 == 0) {
-					LOGGER.info("Data collection duration: {}ms (avg: {}ms, runs: {})",
-							delta, String.format("%.1f", totalDataFetchTime / (float) numDataFetches), numDataFetches);
-				}
-
-				try {
-					Thread.sleep(Math.max(0, (long) (1000 / Config.getFloat(Config.KEY_UPDATE_RATE) - delta)));
-				} catch (InterruptedException ignored) {
+					LOGGER.info("Data collection duration: {}ms (avg: {}ms, runs: {}, overruns: {}, ticks skipped: {}, snapshots not shown: {})",
+							delta, String.format("%.1f", totalDataFetchTime / (float) numDataFetches), numDataFetches,
+							scheduler.getOverruns(), scheduler.getSkippedTicks(), numDroppedSnapshots);
 				}
 			} while (!uiCallback.hasTerminated());
 		} catch (Throwable e) {
@@ -103,16 +163,59 @@ public class DataCollector extends Thread {
 		}
 	}
 
+	/**
+	 * Logs the start times (relative to the previous tick) and durations of the latest ticks, at most once per
+	 * {@link #OVERRUN_LOG_INTERVAL}.
+	 */
+	private void logOverrun(CollectionScheduler scheduler) {
+		long now = System.nanoTime();
+		if (lastOverrunLogTime != 0 && now - lastOverrunLogTime < OVERRUN_LOG_INTERVAL) {
+			return;
+		}
+		lastOverrunLogTime = now;
+
+		StringBuilder ticks = new StringBuilder();
+		int count = Math.min(OVERRUN_LOG_TICKS, scheduler.getTickHistoryLength());
+		for (int i = count - 1; i >= 0; i--) {
+			long start = scheduler.getTickStartTime(i);
+			long interval = i + 1 < scheduler.getTickHistoryLength() ? start - scheduler.getTickStartTime(i + 1) : 0;
+			ticks.append(String.format(" +%.1f/%.1f", interval / 1e6, (scheduler.getTickEndTime(i) - start) / 1e6));
+		}
+		LOGGER.warn("Data collection tick {} overran (overruns: {}, ticks skipped: {}), latest ticks [ms since previous/duration ms]:{}",
+				scheduler.getTicks(), scheduler.getOverruns(), scheduler.getSkippedTicks(), ticks);
+	}
+
+	private static CollectionScheduler.OverrunPolicy overrunPolicy() {
+		String policy = Config.get(Config.KEY_COLLECTION_OVERRUN_POLICY);
+		try {
+			return CollectionScheduler.OverrunPolicy.valueOf(policy);
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("Unknown collection overrun policy: {}, using {}", policy, CollectionScheduler.OverrunPolicy.Skip);
+			return CollectionScheduler.OverrunPolicy.Skip;
+		}
+	}
+
 	private void updateSystemInformation() {
 		loader.update(systemInformationPrivate);
-		lockTransfer();
-		systemInformationShared.copyFrom(systemInformationPrivate);
-		unlockTransfer();
+		if (Thread.currentThread().isInterrupted()) {
+			return; // The update was aborted, don't publish a partly updated tick
+		}
+		snapshotStatistics.measure(() -> snapshots[backSnapshot].copyFrom(systemInformationPrivate));
+		publishSnapshot();
+	}
+
+	private void publishSnapshot() {
+		snapshotPublishTimes[backSnapshot] = System.nanoTime();
+		int previous = middleSnapshot.getAndSet(backSnapshot | NEW_SNAPSHOT);
+		if ((previous & NEW_SNAPSHOT) != 0) {
+			numDroppedSnapshots++;
+		}
+		backSnapshot = previous & BUFFER_INDEX_MASK;
 	}
 
 	private void updateUi() {
-		if (systemInformationShared.processes.size() > 0) {
-			uiCallback.update(systemInformationShared);
+		if (systemInformationPrivate.processes.size() > 0) {
+			uiCallback.update();
 		}
 	}
 }
\ No newline at end of file
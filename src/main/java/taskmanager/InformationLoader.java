@@ -24,16 +24,34 @@ import taskmanager.data.Disk;
 import taskmanager.data.Gpu;
 import taskmanager.data.Gpu.Type;
 import taskmanager.data.Network;
-import taskmanager.data.TopList;
 import taskmanager.platform.common.NvidiaGpuLoader;
 
 import java.net.SocketException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Loads the system information. The update is split into independent stages that run in parallel, followed by the
+ * parts that depend on several stages (like the top lists). Each stage must only write its own part of the system
+ * information, the stages are joined before the update returns. Stages only run at the ticks when their subsystem is
+ * sampled.
+ * <p>
+ * In background mode (when the UI is hidden) the expensive stages only run at a long interval. Between their runs
+ * they repeat their newest values instead, so their measurements stay in step with the others.
+ */
 public abstract class InformationLoader {
+	private final List<Stage> stages = new ArrayList<>();
+	private ExecutorService stageExecutor;
+	private final StageStatistics topListStatistics = StageStatistics.of("Top lists");
+	private volatile boolean isInBackground;
+
 	private SystemInfo systemInfoLoader;
 	private NvidiaGpuLoader nvidiaGpuLoader;
 
@@ -46,7 +64,6 @@ public abstract class InformationLoader {
 
 	private int numberOfUpdates;
 
-	@SuppressWarnings("unchecked")
 	public void init(SystemInformation systemInformation) {
 		systemInfoLoader = new SystemInfo();
 		nvidiaGpuLoader = new NvidiaGpuLoader();
@@ -57,9 +74,9 @@ public abstract class InformationLoader {
 		systemInformation.pageSize = systemInfoLoader.getHardware().getMemory().getPageSize();
 		systemInformation.bootTime = System.currentTimeMillis() - systemInfoLoader.getOperatingSystem().getSystemUptime() * 1000; // TODO this is incorrect when you take hibernation into account!
 
-		systemInformation.cpuUsagePerCore = new MeasurementContainer[systemInformation.logicalProcessorCount];
+		systemInformation.cpuUsagePerCore = new LongMeasurements[systemInformation.logicalProcessorCount];
 		for (int i = 0; i < systemInformation.cpuUsagePerCore.length; i++) {
-			systemInformation.cpuUsagePerCore[i] = new MeasurementContainer<>((short) 0);
+			systemInformation.cpuUsagePerCore[i] = LongMeasurements.createWithHistory(Subsystem.Cpu, 0);
 		}
 
 		initNetworkInterfaces(systemInformation);
@@ -67,6 +84,32 @@ public abstract class InformationLoader {
 		initGpus(systemInformation);
 
 		systemInformation.userName = System.getProperty("user.name", "");
+
+		addStage("Memory", Subsystem.Memory, this::updateMemory);
+		addStage("Cpu", Subsystem.Cpu, this::updateCpu);
+		addStage("Network", Subsystem.Network, this::updateNetworkInterfaces);
+		addStage("Disks", Subsystem.Disk, this::updateDisks);
+		addStage("Gpu", Subsystem.Gpu, nvidiaGpuLoader::update, this::holdGpus);
+	}
+
+	/**
+	 * Adds a stage to run in parallel with the others at each tick the subsystem is sampled. The stage may only write
+	 * parts of the system information that no other stage reads or writes.
+	 */
+	protected void addStage(String name, Subsystem subsystem, Consumer<SystemInformation> update) {
+		addStage(name, subsystem, update, null);
+	}
+
+	/**
+	 * Adds an expensive stage that only runs at the background interval in background mode, at the other ticks hold
+	 * is called to repeat the newest values.
+	 */
+	protected void addStage(String name, Subsystem subsystem, Consumer<SystemInformation> update, Consumer<SystemInformation> hold) {
+		stages.add(new Stage(name, subsystem, update, hold));
+	}
+
+	public void setInBackground(boolean isInBackground) {
+		this.isInBackground = isInBackground;
 	}
 
 	private void initNetworkInterfaces(SystemInformation systemInformation) {
@@ -146,11 +189,107 @@ public abstract class InformationLoader {
 		}
 	}
 
+	/**
+	 * Updates the system information. If the thread is interrupted the update is aborted with the interrupt status
+	 * set, the system information is then only partly updated and must not be published.
+	 */
 	public void update(SystemInformation systemInformation) {
+		final int deadKeepTime = Config.getInt(Config.KEY_DEAD_PROCESS_KEEP_TIME) * 1000;
+		systemInformation.deadProcesses.removeIf(process -> System.currentTimeMillis() - process.deathTimestamp > deadKeepTime);
+
+		systemInformation.processesVersion++;
+		boolean hasScannedProcesses;
+		try {
+			hasScannedProcesses = runStages(systemInformation);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		if (numberOfUpdates > 0 && numberOfUpdates % Subsystem.Processes.samplePeriod() == 0) {
+			if (hasScannedProcesses) {
+				topListStatistics.measure(() -> updateTopLists(systemInformation));
+			} else {
+				systemInformation.cpuTopList.holdNewest();
+				systemInformation.memoryUsedTopList.holdNewest();
+			}
+		}
+
+		numberOfUpdates++;
+	}
+
+	/**
+	 * Runs the stages that are due and returns true if the processes were scanned. When interrupted the stages that
+	 * are still running are cancelled, but they may not have stopped yet when this method throws.
+	 */
+	private boolean runStages(SystemInformation systemInformation) throws InterruptedException {
+		if (stageExecutor == null) {
+			stageExecutor = Executors.newFixedThreadPool(Math.min(stages.size(), Runtime.getRuntime().availableProcessors()), r -> {
+				Thread thread = new Thread(r, "Collector stage");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		final boolean isInBackground = this.isInBackground;
+		final int backgroundPeriod = Math.max(1, Math.round(Config.getFloat(Config.KEY_BACKGROUND_UPDATE_INTERVAL) * Subsystem.tickRate()));
+
+		boolean hasScannedProcesses = false;
+		List<Stage> dueStages = new ArrayList<>(stages.size());
+		List<Callable<Void>> tasks = new ArrayList<>(stages.size());
+		for (Stage stage : stages) {
+			if (numberOfUpdates % stage.samplePeriod != 0) {
+				continue;
+			}
+
+			if (isInBackground && stage.hold != null && numberOfUpdates - stage.lastRun < backgroundPeriod) {
+				stage.hold.accept(systemInformation);
+			} else {
+				stage.lastRun = numberOfUpdates;
+				hasScannedProcesses |= stage.subsystem == Subsystem.Processes;
+				dueStages.add(stage);
+				tasks.add(() -> {
+					stage.statistics.measure(() -> stage.update.accept(systemInformation));
+					return null;
+				});
+			}
+		}
+
+		List<Future<Void>> results = stageExecutor.invokeAll(tasks);
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new IllegalStateException("Stage '" + dueStages.get(i).name + "' failed", e.getCause());
+			}
+		}
+		return hasScannedProcesses;
+	}
+
+	protected void holdProcesses(SystemInformation systemInformation) {
+		for (Process process : systemInformation.processes) {
+			if (process.status != Status.Dead) {
+				process.holdValues();
+				process.version = systemInformation.processesVersion;
+			}
+		}
+	}
+
+	private void holdGpus(SystemInformation systemInformation) {
+		for (Gpu gpu : systemInformation.gpus) {
+			gpu.holdValues();
+		}
+	}
+
+	private void updateMemory(SystemInformation systemInformation) {
 		systemInformation.uptime = System.currentTimeMillis() - systemInformation.bootTime;
 		systemInformation.memoryUsed.addValue(systemInformation.physicalMemoryTotal - systemInfoLoader.getHardware().getMemory().getAvailable());
+	}
 
-		// Update the CPU usage
+	private void updateCpu(SystemInformation systemInformation) {
 		double[] loadPerCore;
 		if (lastCpuLoadTicksPerCore == null) {
 			loadPerCore = new double[systemInformation.cpuUsagePerCore.length];
@@ -158,32 +297,18 @@ public abstract class InformationLoader {
 			loadPerCore = systemInfoLoader.getHardware().getProcessor().getProcessorCpuLoadBetweenTicks(lastCpuLoadTicksPerCore);
 		}
 		for (int i = 0; i < loadPerCore.length; i++) {
-			systemInformation.cpuUsagePerCore[i].addValue((short) Math.round(loadPerCore[i] * Config.DOUBLE_TO_LONG));
+			systemInformation.cpuUsagePerCore[i].addValue(Math.round(loadPerCore[i] * Config.DOUBLE_TO_LONG));
 		}
 
 		if (lastCpuLoadTicks == null) {
-			systemInformation.cpuUsageTotal.addValue((short) 0);
+			systemInformation.cpuUsageTotal.addValue(0);
 		} else {
 			systemInformation.cpuUsageTotal.addValue(
-					(short) Math.round(systemInfoLoader.getHardware().getProcessor().getSystemCpuLoadBetweenTicks(lastCpuLoadTicks) * Config.DOUBLE_TO_LONG));
+					Math.round(systemInfoLoader.getHardware().getProcessor().getSystemCpuLoadBetweenTicks(lastCpuLoadTicks) * Config.DOUBLE_TO_LONG));
 		}
 
 		lastCpuLoadTicksPerCore = systemInfoLoader.getHardware().getProcessor().getProcessorCpuLoadTicks();
 		lastCpuLoadTicks = systemInfoLoader.getHardware().getProcessor().getSystemCpuLoadTicks();
-
-		final int deadKeepTime = Config.getInt(Config.KEY_DEAD_PROCESS_KEEP_TIME) * 1000;
-		systemInformation.deadProcesses.removeIf(process -> System.currentTimeMillis() - process.deathTimestamp > deadKeepTime);
-
-		updateNetworkInterfaces(systemInformation);
-		updateDisks(systemInformation);
-
-		nvidiaGpuLoader.update(systemInformation);
-
-		if (numberOfUpdates > 0) {
-			updateTopLists(systemInformation);
-		}
-
-		numberOfUpdates++;
 	}
 
 	private void updateNetworkInterfaces(SystemInformation systemInformation) {
@@ -213,7 +338,7 @@ public abstract class InformationLoader {
 				long a2 = disk.getTransferTime();
 
 				if (diskExists) {
-					systemInformation.disks[i].activeFraction.addValue(Math.max(0, (a2 - a1) / (double) (t2 - t1)));
+					systemInformation.disks[i].activeFraction.addValue(Math.round(Math.max(0, (a2 - a1) / (double) (t2 - t1)) * Config.DOUBLE_TO_LONG));
 					systemInformation.disks[i].writeRate.addValue(w2 - w1);
 					systemInformation.disks[i].readRate.addValue(r2 - r1);
 					systemInformation.disks[i].ioQueueLength.addValue(disk.getCurrentQueueLength());
@@ -228,14 +353,12 @@ public abstract class InformationLoader {
 		final int topListSize = Config.getInt(Config.KEY_METRIC_TOP_LIST_SIZE);
 
 		// Cpu
-		systemInformation.processes.sort((p1, p2) -> (int) (p2.cpuUsage.newest() - p1.cpuUsage.newest()));
-		TopList cpuTopList = TopList.of(p -> p.cpuUsage.newest(), systemInformation.processes, topListSize);
-		systemInformation.cpuTopList.addValue(cpuTopList);
+		systemInformation.processes.sort((p1, p2) -> Long.compare(p2.cpuUsage.newestValue(), p1.cpuUsage.newestValue()));
+		systemInformation.cpuTopList.addTopList(p -> p.cpuUsage.newestValue(), systemInformation.processes, topListSize);
 
 		// Memory
-		systemInformation.processes.sort((p1, p2) -> signum(p2.privateWorkingSet.newest() - p1.privateWorkingSet.newest()));
-		TopList memoryTopList = TopList.of(p -> p.privateWorkingSet.newest(), systemInformation.processes, topListSize);
-		systemInformation.memoryUsedTopList.addValue(memoryTopList);
+		systemInformation.processes.sort((p1, p2) -> signum(p2.privateWorkingSet.newestValue() - p1.privateWorkingSet.newestValue()));
+		systemInformation.memoryUsedTopList.addTopList(p -> p.privateWorkingSet.newestValue(), systemInformation.processes, topListSize);
 	}
 
 	private static int signum(long value) {
@@ -247,7 +370,7 @@ public abstract class InformationLoader {
 		return 0;
 	}
 
-	protected void updateDeadProcesses(SystemInformation systemInformation, Set<Long> processIds) {
+	protected void updateDeadProcesses(SystemInformation systemInformation, ProcessIdSet processIds) {
 		ListIterator<Process> itr = systemInformation.processes.listIterator();
 		while (itr.hasNext()) {
 			Process process = itr.next();
@@ -255,11 +378,40 @@ public abstract class InformationLoader {
 				if (!systemInformation.deadProcesses.contains(process)) {
 					process.status = Status.Dead;
 					process.deathTimestamp = System.currentTimeMillis();
+					process.version = systemInformation.processesVersion;
 					systemInformation.deadProcesses.add(process);
+					processDied(process);
 				} else {
 					itr.remove();
 				}
 			}
 		}
 	}
+
+
+	/**
+	 * Called when a process is found to be dead, before it is moved to the dead processes.
+	 */
+	protected void processDied(Process process) {
+	}
+
+
+	private static class Stage {
+		final String name;
+		final Subsystem subsystem;
+		final int samplePeriod;
+		final Consumer<SystemInformation> update;
+		final Consumer<SystemInformation> hold;
+		final StageStatistics statistics;
+		int lastRun;
+
+		Stage(String name, Subsystem subsystem, Consumer<SystemInformation> update, Consumer<SystemInformation> hold) {
+			this.name = name;
+			this.subsystem = subsystem;
+			this.samplePeriod = subsystem.samplePeriod();
+			this.update = update;
+			this.hold = hold;
+			statistics = StageStatistics.of(name);
+		}
+	}
 }
\ No newline at end of file
@@ -11,10 +11,11 @@
 
 package taskmanager;
 
-import taskmanager.data.SystemInformation;
-
 public interface InformationUpdateCallback {
-	void update(SystemInformation systemInformation);
+	/**
+	 * Called by the data collector when a new snapshot is available, see {@link DataCollector#takeSnapshot()}.
+	 */
+	void update();
 	void dataCollectorFailed();
 	boolean hasTerminated();
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+/**
+ * Histogram of latencies with a fixed relative precision (like HdrHistogram). Each power of two range is split into
+ * 2^SUB_BUCKET_BITS buckets, so recorded values are accurate to about 3% regardless of their magnitude. Not thread
+ * safe.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private final long[] counts;
+	private long totalCount;
+	private long total;
+	private long max;
+
+	public LatencyHistogram() {
+		counts = new long[(Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT];
+	}
+
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts[bucketIndex(value)]++;
+		totalCount++;
+		total += value;
+		max = Math.max(max, value);
+	}
+
+	public long count() {
+		return totalCount;
+	}
+
+	public long mean() {
+		return totalCount > 0 ? total / totalCount : 0;
+	}
+
+	public long max() {
+		return max;
+	}
+
+	/**
+	 * Returns the highest value in the bucket containing the given percentile (0-100) of the recorded values.
+	 */
+	public long percentile(double percentile) {
+		long target = (long) Math.ceil(totalCount * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target && seen > 0) {
+				return Math.min(max, lowestValueOf(i + 1) - 1);
+			}
+		}
+		return max;
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + mantissa - SUB_BUCKET_COUNT;
+	}
+
+	private static long lowestValueOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		long mantissa = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+		if (exponent >= Long.SIZE - 1) {
+			return Long.MAX_VALUE;
+		}
+		return mantissa << (exponent - SUB_BUCKET_BITS);
+	}
+}
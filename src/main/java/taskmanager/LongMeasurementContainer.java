@@ -0,0 +1,767 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import config.Config;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Primitive version of {@link MeasurementContainer}. Consecutive equal values are stored as runs in chunks of
+ * primitive arrays, so memory is proportional to the number of value changes and adding a value rarely allocates.
+ * <p>
+ * Runs are numbered from the first run that was added and a run is never modified after it is written (its length
+ * follows from the start of the next run). This means copies can share the chunks by reference, {@link #copyDelta}
+ * only has to update the references of the chunks that changed. A chunk is copied before it is written to if it
+ * may be shared.
+ * <p>
+ * The maximum and minimum are tracked with monotonic queues of runs, which are created the first time they are
+ * requested. After that they cost amortized O(1) per added value and per query. Other range queries are answered
+ * by a {@link MeasurementPyramid}, which is also created on first use.
+ * <p>
+ * The container is meant to have a single writer. Writes are synchronized and bump a sequence number, the plain
+ * reads ({@link #newestValue()}, {@link #oldestValue()}, {@link #readRange} and iterators) never lock, instead they
+ * retry if the sequence number changed while they were reading. The comparators call these for every process, so
+ * they neither block nor are blocked by the collector.
+ * <p>
+ * Fractions are stored as fixed point values, multiplied by {@link Config#DOUBLE_TO_LONG}.
+ */
+public class LongMeasurementContainer implements LongMeasurements {
+	private static final int INITIAL_CAPACITY = 4;
+	private static final int CHUNK_BITS = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private final int size;
+	private final int samplePeriod;
+	private final long defaultValue;
+
+	// Run r is stored at index r % CHUNK_SIZE of chunk r / CHUNK_SIZE, chunk c is at index c % length of the tables
+	// (the length is always a power of two)
+	private long[][] valueChunks;
+	private int[][] startChunks;
+	private int firstRun;
+	private int runs;
+	private boolean ownsNewestChunk;
+
+	private int time;
+
+	private volatile int sequence; // Odd while the runs are being modified
+
+	private MonotonicQueue maxQueue;
+	private MonotonicQueue minQueue;
+
+	private MeasurementPyramid pyramid;
+	private long rangeMin;
+	private long rangeMax;
+	private long rangeSum;
+
+	public LongMeasurementContainer(long defaultValue) {
+		this(Subsystem.historyLength(), defaultValue);
+	}
+
+	public LongMeasurementContainer(int size, long defaultValue) {
+		this(size, 1, defaultValue);
+	}
+
+	public LongMeasurementContainer(int size, int samplePeriod, long defaultValue) {
+		this.size = size;
+		this.samplePeriod = samplePeriod;
+		this.defaultValue = defaultValue;
+		valueChunks = new long[1][];
+		startChunks = new int[1][];
+
+		appendRun(defaultValue, -size);
+	}
+
+	@Override
+	public synchronized void copyFrom(Measurements<Long> otherRaw) {
+		LongMeasurementContainer other = checkCompatible(otherRaw);
+
+		beginWrite();
+		copyFrom(other);
+		endWrite();
+	}
+
+	private void copyFrom(LongMeasurementContainer other) {
+		synchronized (other) {
+			if (valueChunks.length != other.valueChunks.length) {
+				valueChunks = new long[other.valueChunks.length][];
+				startChunks = new int[other.valueChunks.length][];
+			}
+
+			System.arraycopy(other.valueChunks, 0, valueChunks, 0, valueChunks.length);
+			System.arraycopy(other.startChunks, 0, startChunks, 0, startChunks.length);
+			firstRun = other.firstRun;
+			runs = other.runs;
+			ownsNewestChunk = false;
+			time = other.time;
+		}
+
+		maxQueue = null;
+		minQueue = null;
+		pyramid = null;
+	}
+
+	@Override
+	public synchronized void copyDelta(Measurements<Long> otherRaw) {
+		LongMeasurementContainer other = checkCompatible(otherRaw);
+
+		beginWrite();
+		copyDelta(other);
+		endWrite();
+	}
+
+	private void copyDelta(LongMeasurementContainer other) {
+		synchronized (other) {
+			int previousTime = time;
+
+			// Our newest run must be in the other container, everything after it is new
+			int newestRun = firstRun + runs - 1;
+			int otherEnd = other.firstRun + other.runs;
+			if (other.time < time || newestRun < other.firstRun || newestRun >= otherEnd
+					|| other.startOf(newestRun) != startOf(newestRun)) {
+				copyFrom(other);
+				return;
+			}
+
+			// Drop the runs that were pruned from the other container
+			while (firstRun < other.firstRun) {
+				removeOldest();
+			}
+
+			// Share the chunks with new runs, our newest chunk may have been filled since the last copy
+			int lastChunk = (otherEnd - 1) >> CHUNK_BITS;
+			ensureChunkCapacity(lastChunk);
+			for (int chunk = newestRun >> CHUNK_BITS; chunk <= lastChunk; chunk++) {
+				valueChunks[chunk & (valueChunks.length - 1)] = other.valueChunks[chunk & (other.valueChunks.length - 1)];
+				startChunks[chunk & (startChunks.length - 1)] = other.startChunks[chunk & (other.startChunks.length - 1)];
+			}
+			ownsNewestChunk = false;
+
+			for (int r = newestRun + 1; r < otherEnd; r++) {
+				pushToQueues(startOf(r), valueOf(r));
+			}
+			runs = otherEnd - firstRun;
+			time = other.time;
+
+			if (pyramid != null) {
+				feedPyramid(previousTime);
+			}
+		}
+	}
+
+	private LongMeasurementContainer checkCompatible(Measurements<Long> otherRaw) {
+		if (!(otherRaw instanceof LongMeasurementContainer))
+			throw new IllegalArgumentException("Argument must be a LongMeasurementContainer!");
+
+		if (otherRaw.size() != size())
+			throw new IllegalArgumentException("Sizes must be equal!");
+
+		return (LongMeasurementContainer) otherRaw;
+	}
+
+	@Override
+	public void addValue(Long value) {
+		addValue(value.longValue());
+	}
+
+	@Override
+	public synchronized void addValue(long value) {
+		beginWrite();
+		if (value(runs - 1) != value) {
+			appendRun(value, time);
+		}
+
+		if (pyramid != null) {
+			pyramid.add(time, value);
+		}
+
+		time += 1;
+
+		pruneSingle();
+		endWrite();
+	}
+
+	private void beginWrite() {
+		sequence++;
+		VarHandle.storeStoreFence();
+	}
+
+	private void endWrite() {
+		sequence++;
+	}
+
+	/**
+	 * Waits until no write is in progress and returns the sequence number to validate the read with.
+	 */
+	private int beginRead() {
+		int current = sequence;
+		while ((current & 1) != 0) {
+			Thread.onSpinWait();
+			current = sequence;
+		}
+		return current;
+	}
+
+	private boolean validateRead(int readSequence) {
+		VarHandle.acquireFence();
+		return sequence == readSequence;
+	}
+
+	private void appendRun(long value, int start) {
+		int r = firstRun + runs;
+		int chunk = r >> CHUNK_BITS;
+		int offset = r & (CHUNK_SIZE - 1);
+		ensureChunkCapacity(chunk);
+
+		int slot = chunk & (valueChunks.length - 1);
+		if (offset == 0) {
+			valueChunks[slot] = new long[INITIAL_CAPACITY];
+			startChunks[slot] = new int[INITIAL_CAPACITY];
+			ownsNewestChunk = true;
+		} else if (!ownsNewestChunk || offset == valueChunks[slot].length) {
+			// Copy on write, the chunk also grows until it holds CHUNK_SIZE runs
+			int capacity = offset == valueChunks[slot].length ? offset * 2 : valueChunks[slot].length;
+			valueChunks[slot] = Arrays.copyOf(valueChunks[slot], capacity);
+			startChunks[slot] = Arrays.copyOf(startChunks[slot], capacity);
+			ownsNewestChunk = true;
+		}
+		valueChunks[slot][offset] = value;
+		startChunks[slot][offset] = start;
+		runs++;
+
+		pushToQueues(start, value);
+	}
+
+	private void ensureChunkCapacity(int lastChunk) {
+		int firstChunk = firstRun >> CHUNK_BITS;
+		if (lastChunk - firstChunk < valueChunks.length) {
+			return;
+		}
+
+		int capacity = valueChunks.length;
+		while (lastChunk - firstChunk >= capacity) {
+			capacity *= 2;
+		}
+		long[][] newValueChunks = new long[capacity][];
+		int[][] newStartChunks = new int[capacity][];
+		int endChunk = runs == 0 ? firstChunk : ((firstRun + runs - 1) >> CHUNK_BITS) + 1;
+		for (int chunk = firstChunk; chunk < endChunk; chunk++) {
+			newValueChunks[chunk & (capacity - 1)] = valueChunks[chunk & (valueChunks.length - 1)];
+			newStartChunks[chunk & (capacity - 1)] = startChunks[chunk & (startChunks.length - 1)];
+		}
+		valueChunks = newValueChunks;
+		startChunks = newStartChunks;
+	}
+
+	private void pushToQueues(int start, long value) {
+		if (maxQueue != null) {
+			maxQueue.push(start, value);
+		}
+		if (minQueue != null) {
+			minQueue.push(start, value);
+		}
+	}
+
+	private void pruneSingle() {
+		if (runs > 1 && time - start(1) > size) {
+			removeOldest();
+		}
+	}
+
+	private void removeOldest() {
+		if (maxQueue != null) {
+			maxQueue.removeOldest(start(0));
+		}
+		if (minQueue != null) {
+			minQueue.removeOldest(start(0));
+		}
+
+		firstRun++;
+		runs--;
+		if ((firstRun & (CHUNK_SIZE - 1)) == 0) {
+			int slot = ((firstRun - 1) >> CHUNK_BITS) & (valueChunks.length - 1);
+			valueChunks[slot] = null;
+			startChunks[slot] = null;
+		}
+	}
+
+	private void feedPyramid(int fromTime) {
+		int run = findRun(fromTime);
+		for (int t = fromTime; t < time; t++) {
+			if (run < 0) {
+				if (t < start(0)) {
+					pyramid.add(t, defaultValue);
+					continue;
+				}
+				run = 0;
+			}
+			while (run < runs - 1 && start(run + 1) <= t) {
+				run++;
+			}
+			pyramid.add(t, value(run));
+		}
+	}
+
+	private long valueOf(int r) {
+		return valueChunks[(r >> CHUNK_BITS) & (valueChunks.length - 1)][r & (CHUNK_SIZE - 1)];
+	}
+
+	private int startOf(int r) {
+		return startChunks[(r >> CHUNK_BITS) & (startChunks.length - 1)][r & (CHUNK_SIZE - 1)];
+	}
+
+	private long value(int run) {
+		return valueOf(firstRun + run);
+	}
+
+	private int start(int run) {
+		return startOf(firstRun + run);
+	}
+
+	/**
+	 * Returns the run containing the specified time, or -1 if the time is older than the oldest run.
+	 */
+	private int findRun(int t) {
+		if (t < start(0)) {
+			return -1;
+		}
+
+		int low = 0;
+		int high = runs - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (start(mid) <= t) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int samplePeriod() {
+		return samplePeriod;
+	}
+
+	@Override
+	public int version() {
+		return time;
+	}
+
+	@Override
+	public synchronized int realSize() {
+		return runs;
+	}
+
+	@Override
+	public Long newest() {
+		return newestValue();
+	}
+
+	@Override
+	public long newestValue() {
+		while (true) {
+			int readSequence = beginRead();
+			try {
+				long value = value(runs - 1);
+				if (validateRead(readSequence)) {
+					return value;
+				}
+			} catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+				// Read a partially updated run table, try again
+				if (validateRead(readSequence)) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public Long oldest() {
+		return oldestValue();
+	}
+
+	@Override
+	public long oldestValue() {
+		while (true) {
+			int readSequence = beginRead();
+			try {
+				long value = value(0);
+				if (validateRead(readSequence)) {
+					return value;
+				}
+			} catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+				if (validateRead(readSequence)) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public Long max() {
+		return maxValue();
+	}
+
+	@Override
+	public synchronized long maxValue() {
+		return maxQueue().first();
+	}
+
+	@Override
+	public Long max(int startIndex, int endIndex) {
+		return maxValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long maxValue(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		return extremeInRange(true, startIndex, endIndex);
+	}
+
+	@Override
+	public Long min() {
+		return minValue();
+	}
+
+	@Override
+	public synchronized long minValue() {
+		return minQueue().first();
+	}
+
+	@Override
+	public Long min(int startIndex, int endIndex) {
+		return minValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long minValue(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		return extremeInRange(false, startIndex, endIndex);
+	}
+
+	private MonotonicQueue maxQueue() {
+		if (maxQueue == null) {
+			maxQueue = createQueue(true);
+		}
+		return maxQueue;
+	}
+
+	private MonotonicQueue minQueue() {
+		if (minQueue == null) {
+			minQueue = createQueue(false);
+		}
+		return minQueue;
+	}
+
+	private MonotonicQueue createQueue(boolean keepMax) {
+		MonotonicQueue queue = new MonotonicQueue(keepMax);
+		for (int i = 0; i < runs; i++) {
+			queue.push(start(i), value(i));
+		}
+		return queue;
+	}
+
+	private long extremeInRange(boolean max, int startIndex, int endIndex) {
+		int startTime = time - size + startIndex;
+		int endTime = time - size + endIndex;
+		if (endTime < start(0)) {
+			return defaultValue;
+		}
+
+		if (endTime == time - 1) {
+			// Ranges that end at the newest value are answered by the queue directly
+			MonotonicQueue queue = max ? maxQueue() : minQueue();
+			long result = queue.firstFrom(start(Math.max(0, findRun(startTime))));
+			if (startTime < start(0)) {
+				result = queue.select(result, defaultValue);
+			}
+			return result;
+		}
+
+		aggregateRange(startTime, endTime);
+		return max ? rangeMax : rangeMin;
+	}
+
+	@Override
+	public synchronized long sum(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		aggregateRange(time - size + startIndex, time - size + endIndex);
+		return rangeSum;
+	}
+
+	@Override
+	public synchronized void averageRange(int startIndex, int stepSize, int steps, long[] destination) {
+		if (steps == 0) {
+			return;
+		}
+		checkRange(startIndex, startIndex + stepSize * steps - 1);
+		int startTime = time - size + startIndex;
+		for (int i = 0; i < steps; i++) {
+			aggregateRange(startTime + i * stepSize, startTime + (i + 1) * stepSize - 1);
+			destination[i] = rangeSum / stepSize;
+		}
+	}
+
+	/**
+	 * Computes the min, max and sum of the range by combining the largest pyramid buckets that fit, the result is
+	 * stored in rangeMin, rangeMax and rangeSum.
+	 */
+	private void aggregateRange(int startTime, int endTime) {
+		if (pyramid == null) {
+			pyramid = new MeasurementPyramid(size);
+			feedPyramid(time - size);
+		}
+
+		rangeMin = Long.MAX_VALUE;
+		rangeMax = Long.MIN_VALUE;
+		rangeSum = 0;
+
+		int t = startTime;
+		while (t <= endTime) {
+			int level = pyramid.largestLevel(t, endTime);
+			if (level == 0) {
+				long value = valueAt(t);
+				rangeMin = Math.min(rangeMin, value);
+				rangeMax = Math.max(rangeMax, value);
+				rangeSum += value;
+				t += 1;
+			} else {
+				rangeMin = Math.min(rangeMin, pyramid.min(level, t));
+				rangeMax = Math.max(rangeMax, pyramid.max(level, t));
+				rangeSum += pyramid.sum(level, t);
+				t += 1 << level;
+			}
+		}
+	}
+
+	private long valueAt(int t) {
+		int run = findRun(t);
+		return run < 0 ? defaultValue : value(run);
+	}
+
+	private void checkRange(int startIndex, int endIndex) {
+		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
+			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
+	}
+
+	@Override
+	public void readRange(int startIndex, int endIndex, long[] destination) {
+		checkRange(startIndex, endIndex);
+		while (true) {
+			int readSequence = beginRead();
+			try {
+				readRangeUnchecked(startIndex, endIndex, destination);
+				if (validateRead(readSequence)) {
+					return;
+				}
+			} catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+				if (validateRead(readSequence)) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private void readRangeUnchecked(int startIndex, int endIndex, long[] destination) {
+		int startTime = time - size + startIndex;
+		int endTime = time - size + endIndex;
+
+		int run = findRun(startTime);
+		for (int t = startTime; t <= endTime; t++) {
+			if (run < 0) {
+				if (t < start(0)) {
+					destination[t - startTime] = defaultValue;
+					continue;
+				}
+				run = 0;
+			}
+			while (run < runs - 1 && start(run + 1) <= t) {
+				run++;
+			}
+			destination[t - startTime] = value(run);
+		}
+	}
+
+	@Override
+	public void readRange(int startIndex, int endIndex, Long[] destination) {
+		long[] values = new long[endIndex - startIndex + 1];
+		readRange(startIndex, endIndex, values);
+		for (int i = 0; i < values.length; i++) {
+			destination[i] = values[i];
+		}
+	}
+
+	@Override
+	public Iterator<Long> getRangeIterator(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		while (true) {
+			int readSequence = beginRead();
+			int currentTime = time;
+			if (validateRead(readSequence)) {
+				return new DataIterator(currentTime - size + startIndex, currentTime - size + endIndex);
+			}
+		}
+	}
+
+
+	private class DataIterator implements Iterator<Long> {
+		private int t;
+		private final int end;
+
+		// Run numbers do not change when old runs are pruned, so the run is only looked up once
+		private int run;
+
+		public DataIterator(int start, int end) {
+			this.t = start;
+			this.end = end;
+			run = -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return t <= end;
+		}
+
+		@Override
+		public Long next() {
+			if (!hasNext())
+				throw new IllegalStateException("The iterator is empty!");
+
+			long dataPoint;
+
+			while (true) {
+				int readSequence = beginRead();
+				try {
+					int currentRun = run;
+					if (currentRun < firstRun || currentRun >= firstRun + runs) {
+						int found = findRun(t);
+						currentRun = found < 0 ? -1 : firstRun + found;
+					}
+
+					if (currentRun < 0) {
+						dataPoint = defaultValue;
+					} else {
+						while (currentRun < firstRun + runs - 1 && startOf(currentRun + 1) <= t) {
+							currentRun++;
+						}
+						dataPoint = valueOf(currentRun);
+					}
+
+					if (validateRead(readSequence)) {
+						run = currentRun;
+						break;
+					}
+				} catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+					if (validateRead(readSequence)) {
+						throw e;
+					}
+				}
+			}
+
+			t += 1;
+			return dataPoint;
+		}
+	}
+
+
+	/**
+	 * Runs whose values can still become the maximum (or minimum) of the window, in order of age. The values are
+	 * strictly decreasing (increasing) from the oldest to the newest so the first entry is always the extreme value.
+	 */
+	private static class MonotonicQueue {
+		private final boolean keepMax;
+
+		private int[] starts;
+		private long[] values;
+		private int head;
+		private int length;
+
+		MonotonicQueue(boolean keepMax) {
+			this.keepMax = keepMax;
+			starts = new int[INITIAL_CAPACITY];
+			values = new long[INITIAL_CAPACITY];
+		}
+
+		void push(int start, long value) {
+			while (length > 0 && select(values[index(length - 1)], value) == value) {
+				length--;
+			}
+
+			if (length == starts.length) {
+				grow();
+			}
+			int idx = index(length);
+			starts[idx] = start;
+			values[idx] = value;
+			length++;
+		}
+
+		void removeOldest(int start) {
+			if (length > 0 && starts[head] == start) {
+				head = (head + 1) & (starts.length - 1);
+				length--;
+			}
+		}
+
+		long first() {
+			return values[head];
+		}
+
+		/**
+		 * Returns the extreme value among the runs that started at or after the given time. The newest run is always
+		 * in the queue so there is always such an entry.
+		 */
+		long firstFrom(int start) {
+			int low = 0;
+			int high = length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (starts[index(mid)] >= start) {
+					high = mid;
+				} else {
+					low = mid + 1;
+				}
+			}
+			return values[index(low)];
+		}
+
+		long select(long a, long b) {
+			return keepMax ? Math.max(a, b) : Math.min(a, b);
+		}
+
+		private void grow() {
+			int[] newStarts = new int[starts.length * 2];
+			long[] newValues = new long[starts.length * 2];
+			for (int i = 0; i < length; i++) {
+				newStarts[i] = starts[index(i)];
+				newValues[i] = values[index(i)];
+			}
+			starts = newStarts;
+			values = newValues;
+			head = 0;
+		}
+
+		private int index(int i) {
+			return (head + i) & (starts.length - 1);
+		}
+	}
+}
\ No newline at end of file
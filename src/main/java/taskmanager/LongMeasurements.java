@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import config.Config;
+
+/**
+ * Measurements of primitive longs. The primitive overloads never box, use them in code that runs for every
+ * process and tick.
+ */
+public interface LongMeasurements extends Measurements<Long> {
+	void addValue(long value);
+
+	long newestValue();
+	long oldestValue();
+	long maxValue();
+	long minValue();
+	long maxValue(int startIndex, int endIndex);
+	long minValue(int startIndex, int endIndex);
+	long sum(int startIndex, int endIndex);
+
+	/**
+	 * Primitive version of {@link #readRange(int, int, Object[])}.
+	 */
+	void readRange(int startIndex, int endIndex, long[] destination);
+
+	/**
+	 * Stores the average of each of the steps consecutive groups of stepSize values starting at startIndex in the
+	 * destination.
+	 */
+	void averageRange(int startIndex, int stepSize, int steps, long[] destination);
+
+	/**
+	 * Returns the number of the newest values that are stored as is, older values may be rolled up (see
+	 * {@link TieredLongMeasurementContainer}).
+	 */
+	default int fullResolutionSize() {
+		return size();
+	}
+
+	/**
+	 * Creates measurements for a subsystem, sized after the configured buffer size and the rate of the subsystem and
+	 * compressed if enabled in the config. Compressed
+	 * measurements use less memory for long buffers (e.g. a day) but are slower to read.
+	 */
+	static LongMeasurements create(Subsystem subsystem, long defaultValue) {
+		return create(subsystem.bufferSize(), subsystem.samplePeriod(), defaultValue);
+	}
+
+	static LongMeasurements create(int size, int samplePeriod, long defaultValue) {
+		if (Config.getBoolean(Config.KEY_COMPRESS_MEASUREMENTS)) {
+			return new CompressedLongMeasurementContainer(size, samplePeriod, defaultValue);
+		}
+		return new LongMeasurementContainer(size, samplePeriod, defaultValue);
+	}
+
+	/**
+	 * Creates measurements that also keep rolled up history if rollup tiers are configured. Intended for system wide
+	 * measurements, there are too many processes to keep long histories for each of them.
+	 */
+	static LongMeasurements createWithHistory(Subsystem subsystem, long defaultValue) {
+		if (!Config.get(Config.KEY_MEASUREMENT_ROLLUP_TIERS).isBlank()) {
+			return new TieredLongMeasurementContainer(subsystem, defaultValue);
+		}
+		return create(subsystem, defaultValue);
+	}
+}
@@ -11,12 +11,14 @@
 
 package taskmanager;
 
-import config.Config;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 
 public class MeasurementContainer<T extends Comparable<T>> implements Measurements<T> {
 	private int size;
+	private int samplePeriod;
 	private T defaultValue;
 
 	private Point oldest;
@@ -24,12 +26,21 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 
 	private int time;
 
+	// Monotonic queues for max/min, created lazily since not all types are comparable (see TopList)
+	private Deque<Point> maxQueue;
+	private Deque<Point> minQueue;
+
 	public MeasurementContainer(T defaultValue) {
-		this((int) (Config.getInt(Config.KEY_MAXIMUM_MEASURMENT_BUFFER_SIZE) * Config.getFloat(Config.KEY_UPDATE_RATE)), defaultValue);
+		this(Subsystem.historyLength(), defaultValue);
 	}
 
 	public MeasurementContainer(int size, T defaultValue) {
+		this(size, 1, defaultValue);
+	}
+
+	public MeasurementContainer(int size, int samplePeriod, T defaultValue) {
 		this.size = size;
+		this.samplePeriod = samplePeriod;
 		this.defaultValue = defaultValue;
 		this.oldest = this.newest = new Point(defaultValue, -size);
 		oldest.count = size;
@@ -57,6 +68,9 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 		}
 		newest = lastPoint;
 		time = other.time;
+
+		maxQueue = null;
+		minQueue = null;
 	}
 
 	@Override
@@ -87,6 +101,8 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 		if (otherCurrent == null) {
 			oldest = current;
 			newest = newNewest;
+			maxQueue = null;
+			minQueue = null;
 		} else {
 			newest.count = otherCurrent.count;
 			newest.next = current;
@@ -95,10 +111,16 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 			}
 
 			while (oldest.constructionTime != other.oldest.constructionTime) {
+				removeFromQueues(oldest);
 				oldest = oldest.next;
 			}
 			oldest.previous = null;
 
+			while (current != null) {
+				addToQueues(current);
+				current = current.next;
+			}
+
 			if (newNewest != null) {
 				newest = newNewest;
 			}
@@ -118,6 +140,7 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 			newest.next = newPoint;
 			newPoint.previous = newest;
 			newest = newPoint;
+			addToQueues(newPoint);
 		}
 
 		time += 1;
@@ -127,16 +150,51 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 
 	private void pruneSingle() {
 		if (time - (oldest.constructionTime + oldest.count) > size) {
+			removeFromQueues(oldest);
 			oldest = oldest.next;
 			oldest.previous = null;
 		}
 	}
 
+	private void addToQueues(Point point) {
+		if (maxQueue != null) {
+			while (!maxQueue.isEmpty() && maxQueue.peekLast().value.compareTo(point.value) <= 0) {
+				maxQueue.pollLast();
+			}
+			maxQueue.addLast(point);
+		}
+		if (minQueue != null) {
+			while (!minQueue.isEmpty() && minQueue.peekLast().value.compareTo(point.value) >= 0) {
+				minQueue.pollLast();
+			}
+			minQueue.addLast(point);
+		}
+	}
+
+	private void removeFromQueues(Point point) {
+		if (maxQueue != null && maxQueue.peekFirst() == point) {
+			maxQueue.pollFirst();
+		}
+		if (minQueue != null && minQueue.peekFirst() == point) {
+			minQueue.pollFirst();
+		}
+	}
+
 	@Override
 	public int size() {
 		return size;
 	}
 
+	@Override
+	public int samplePeriod() {
+		return samplePeriod;
+	}
+
+	@Override
+	public int version() {
+		return time;
+	}
+
 	@Override
 	public int realSize() { // TODO Inefficient but currently only used to debug
 		int size = 1;
@@ -159,35 +217,116 @@ public class MeasurementContainer<T extends Comparable<T>> implements Measuremen
 	}
 
 	@Override
-	public synchronized T max() { // TODO inefficient, use a monotone queue/heap
-		T max = oldest.value;
-		Point current = oldest.next;
+	public synchronized T max() {
+		if (maxQueue == null) {
+			maxQueue = new ArrayDeque<>();
+			fillQueues();
+		}
+		return maxQueue.peekFirst().value;
+	}
+
+	@Override
+	public synchronized T min() {
+		if (minQueue == null) {
+			minQueue = new ArrayDeque<>();
+			fillQueues();
+		}
+		return minQueue.peekFirst().value;
+	}
+
+	private void fillQueues() {
+		if (maxQueue != null) {
+			maxQueue.clear();
+		}
+		if (minQueue != null) {
+			minQueue.clear();
+		}
+
+		Point current = oldest;
 		while (current != null) {
-			if (max.compareTo(current.value) < 0) {
-				max = current.value;
+			addToQueues(current);
+			current = current.next;
+		}
+	}
+
+	@Override
+	public synchronized T max(int startIndex, int endIndex) {
+		max(); // Make sure the queue exists
+		return extremeInRange(maxQueue, startIndex, endIndex, 1);
+	}
+
+	@Override
+	public synchronized T min(int startIndex, int endIndex) {
+		min(); // Make sure the queue exists
+		return extremeInRange(minQueue, startIndex, endIndex, -1);
+	}
+
+	private T extremeInRange(Deque<Point> queue, int startIndex, int endIndex, int sign) {
+		checkRange(startIndex, endIndex);
+		int startTime = time - size + startIndex;
+		int endTime = time - size + endIndex;
+
+		T result = null;
+		if (startTime < oldest.constructionTime) {
+			result = defaultValue;
+		}
+
+		if (endTime == time - 1) {
+			// The queue is ordered by age, the first point that overlaps the range is the extreme value
+			for (Point point : queue) {
+				if (point.constructionTime + point.count > startTime) {
+					return select(result, point.value, sign);
+				}
+			}
+		}
+
+		Point current = oldest;
+		while (current != null && current.constructionTime <= endTime) {
+			if (current.constructionTime + current.count > startTime) {
+				result = select(result, current.value, sign);
 			}
 			current = current.next;
 		}
-		return max;
+		return result;
+	}
+
+	private T select(T current, T candidate, int sign) {
+		if (current == null || sign * candidate.compareTo(current) > 0) {
+			return candidate;
+		}
+		return current;
+	}
+
+	private void checkRange(int startIndex, int endIndex) {
+		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
+			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
 	}
 
 	@Override
-	public synchronized T min() { // TODO inefficient, use a monotone queue/heap
-		T min = oldest.value;
-		Point current = oldest.next;
-		while (current != null) {
-			if (min.compareTo(current.value) > 0) {
-				min = current.value;
+	public synchronized void readRange(int startIndex, int endIndex, T[] destination) {
+		checkRange(startIndex, endIndex);
+		int startTime = time - size + startIndex;
+		int endTime = time - size + endIndex;
+
+		int t = startTime;
+		while (t < oldest.constructionTime && t <= endTime) {
+			destination[t - startTime] = defaultValue;
+			t++;
+		}
+
+		Point current = oldest;
+		while (current != null && t <= endTime) {
+			while (t < current.constructionTime + current.count && t <= endTime) {
+				destination[t - startTime] = current.value;
+				t++;
 			}
 			current = current.next;
 		}
-		return min;
 	}
 
 	@Override
 	public Iterator<T> getRangeIterator(int startIndex, int endIndex) {
-		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
-			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
+		checkRange(startIndex, endIndex);
 		return new DataIterator(startIndex, endIndex);
 	}
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import java.util.Arrays;
+
+/**
+ * Downsampling pyramid for long measurements. Level k (k >= 1) stores the min, max and sum of aligned buckets of 2^k
+ * values, so that the aggregate of any range can be combined from O(log n) buckets. Level 0 is the raw data which
+ * is kept by the owner.
+ * <p>
+ * Each level is a ring buffer that holds slightly more buckets than fit in the measurement window. A bucket is only
+ * complete if all of its values were added, which is guaranteed for buckets that lie entirely in the window as long
+ * as the values were added from the start of the window.
+ */
+class MeasurementPyramid {
+	private static final int NO_BUCKET = Integer.MIN_VALUE;
+
+	private final int levels;
+	private final int[][] bucketIds;
+	private final long[][] mins;
+	private final long[][] maxs;
+	private final long[][] sums;
+
+	MeasurementPyramid(int size) {
+		int levels = 0;
+		while (levels < 30 && (2 << levels) <= size) {
+			levels++;
+		}
+		this.levels = levels;
+
+		bucketIds = new int[levels + 1][];
+		mins = new long[levels + 1][];
+		maxs = new long[levels + 1][];
+		sums = new long[levels + 1][];
+		for (int k = 1; k <= levels; k++) {
+			int capacity = (size >> k) + 2;
+			bucketIds[k] = new int[capacity];
+			mins[k] = new long[capacity];
+			maxs[k] = new long[capacity];
+			sums[k] = new long[capacity];
+			Arrays.fill(bucketIds[k], NO_BUCKET);
+		}
+	}
+
+	void add(int time, long value) {
+		for (int k = 1; k <= levels; k++) {
+			int bucket = time >> k;
+			int idx = Math.floorMod(bucket, bucketIds[k].length);
+			if (bucketIds[k][idx] != bucket || (time & ((1 << k) - 1)) == 0) {
+				bucketIds[k][idx] = bucket;
+				mins[k][idx] = value;
+				maxs[k][idx] = value;
+				sums[k][idx] = value;
+			} else {
+				mins[k][idx] = Math.min(mins[k][idx], value);
+				maxs[k][idx] = Math.max(maxs[k][idx], value);
+				sums[k][idx] += value;
+			}
+		}
+	}
+
+	/**
+	 * Returns the highest level whose bucket starts at the given time and ends at or before the end time, 0 if there
+	 * is no such level.
+	 */
+	int largestLevel(int time, int endTime) {
+		int k = 0;
+		while (k < levels && (time & ((2 << k) - 1)) == 0 && endTime - time >= (2 << k) - 1) {
+			k++;
+		}
+		return k;
+	}
+
+	long min(int level, int time) {
+		return mins[level][index(level, time)];
+	}
+
+	long max(int level, int time) {
+		return maxs[level][index(level, time)];
+	}
+
+	long sum(int level, int time) {
+		return sums[level][index(level, time)];
+	}
+
+	private int index(int level, int time) {
+		return Math.floorMod(time >> level, bucketIds[level].length);
+	}
+}
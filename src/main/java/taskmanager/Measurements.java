@@ -23,8 +23,28 @@ public interface Measurements<T> {
 	T oldest();
 	T max();
 	T min();
+	T max(int startIndex, int endIndex);
+	T min(int startIndex, int endIndex);
 
 	Iterator<T> getRangeIterator(int startIndex, int endIndex);
+
+	/**
+	 * Copies the values in the range (inclusive) to the start of the destination, all at once which is much faster
+	 * than iterating when reading many values.
+	 */
+	void readRange(int startIndex, int endIndex, T[] destination);
 	int size();
 	int realSize();
+
+	/**
+	 * Returns the number of data collection ticks between two values.
+	 */
+	int samplePeriod();
+
+	/**
+	 * Returns the number of values that have been added, which is used as the version of the measurements. Copies
+	 * have the same version as the measurements they were copied from, so a copy is up to date if the versions are
+	 * equal.
+	 */
+	int version();
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Reusable set of process ids that keeps the ids in the order they were added. The ids are stored in a primitive array
+ * and membership in a bit set indexed by the id, so neither adding nor looking up an id allocates once the set has
+ * grown to its working size. Ids from {@link #BIT_SET_LIMIT} and up (Windows and macOS don't bound their process ids
+ * like Linux' pid_max does) are kept in an open addressing hash table instead, so that a single large id doesn't
+ * grow the bit set to hundreds of megabytes. Not thread safe.
+ */
+public class ProcessIdSet {
+	// The largest pid_max on Linux, the bit set is at most 512 kB
+	private static final int BIT_SET_LIMIT = 1 << 22;
+	private static final long EMPTY = -1;
+
+	private long[] ids;
+	private int size;
+	private final BitSet members;
+
+	private long[] largeIds;
+	private int numberOfLargeIds;
+
+	public ProcessIdSet() {
+		ids = new long[256];
+		members = new BitSet();
+		largeIds = new long[16];
+		Arrays.fill(largeIds, EMPTY);
+	}
+
+	/**
+	 * Removes all ids, only the bits of the ids in the set are cleared so this is proportional to the size.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			if (ids[i] < BIT_SET_LIMIT) {
+				members.clear((int) ids[i]);
+			}
+		}
+		if (numberOfLargeIds > 0) {
+			Arrays.fill(largeIds, EMPTY);
+			numberOfLargeIds = 0;
+		}
+		size = 0;
+	}
+
+	public void add(long pid) {
+		if (pid < 0) {
+			throw new IllegalArgumentException("Process id out of range: " + pid);
+		}
+		if (pid < BIT_SET_LIMIT) {
+			if (members.get((int) pid)) {
+				return;
+			}
+			members.set((int) pid);
+		} else if (!addLargeId(pid)) {
+			return;
+		}
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		ids[size++] = pid;
+	}
+
+	public boolean contains(long pid) {
+		if (pid < 0) {
+			return false;
+		}
+		if (pid < BIT_SET_LIMIT) {
+			return members.get((int) pid);
+		}
+		return largeIds[slotOf(largeIds, pid)] == pid;
+	}
+
+	/**
+	 * Returns the id at an index in the order they were added.
+	 */
+	public long get(int index) {
+		return ids[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an id to the hash table and returns false if it was already there. The table is kept at most half full.
+	 */
+	private boolean addLargeId(long pid) {
+		int slot = slotOf(largeIds, pid);
+		if (largeIds[slot] == pid) {
+			return false;
+		}
+		largeIds[slot] = pid;
+		numberOfLargeIds++;
+
+		if (numberOfLargeIds * 2 > largeIds.length) {
+			long[] previous = largeIds;
+			largeIds = new long[previous.length * 2];
+			Arrays.fill(largeIds, EMPTY);
+			for (long id : previous) {
+				if (id != EMPTY) {
+					largeIds[slotOf(largeIds, id)] = id;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the slot of the id in the table, or the empty slot where it would be added (linear probing).
+	 */
+	private static int slotOf(long[] table, long pid) {
+		int mask = table.length - 1;
+		int slot = Long.hashCode(pid * 0x9E3779B97F4A7C15L) & mask;
+		while (table[slot] != EMPTY && table[slot] != pid) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+}
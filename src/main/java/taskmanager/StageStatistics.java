@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import config.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencies and allocations of a stage of the data collection or the UI update. Only recorded in debug mode, where
+ * they are shown in the debug panel.
+ */
+public class StageStatistics {
+	private static final boolean IS_ENABLED = Config.getBoolean(Config.KEY_USE_DEBUG_MODE);
+	private static final Map<String, StageStatistics> STAGES = new LinkedHashMap<>();
+
+	private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = createAllocationBean();
+
+	public final String name;
+	private final LatencyHistogram latencies;
+	private long allocatedBytes;
+
+	private StageStatistics(String name) {
+		this.name = name;
+		latencies = new LatencyHistogram();
+	}
+
+	private static com.sun.management.ThreadMXBean createAllocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+			if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean;
+			}
+		}
+		return null;
+	}
+
+	public static boolean isEnabled() {
+		return IS_ENABLED;
+	}
+
+	public static boolean isAllocationTrackingSupported() {
+		return ALLOCATION_BEAN != null;
+	}
+
+	/**
+	 * Returns the statistics of a stage, creating them the first time.
+	 */
+	public static StageStatistics of(String name) {
+		synchronized (STAGES) {
+			return STAGES.computeIfAbsent(name, StageStatistics::new);
+		}
+	}
+
+	public static List<StageStatistics> all() {
+		synchronized (STAGES) {
+			return new ArrayList<>(STAGES.values());
+		}
+	}
+
+	/**
+	 * Runs the stage on the current thread and records its duration and the bytes it allocated.
+	 */
+	public void measure(Runnable stage) {
+		if (!IS_ENABLED) {
+			stage.run();
+			return;
+		}
+
+		long allocatedBefore = allocatedBytesOfCurrentThread();
+		long start = System.nanoTime();
+		try {
+			stage.run();
+		} finally {
+			record(System.nanoTime() - start, allocatedBytesOfCurrentThread() - allocatedBefore);
+		}
+	}
+
+	private static long allocatedBytesOfCurrentThread() {
+		if (ALLOCATION_BEAN == null) {
+			return 0;
+		}
+		return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public synchronized void record(long durationNanos, long allocatedBytes) {
+		latencies.record(durationNanos);
+		this.allocatedBytes += allocatedBytes;
+	}
+
+	public synchronized long runs() {
+		return latencies.count();
+	}
+
+	public synchronized long meanNanos() {
+		return latencies.mean();
+	}
+
+	public synchronized long maxNanos() {
+		return latencies.max();
+	}
+
+	public synchronized long percentileNanos(double percentile) {
+		return latencies.percentile(percentile);
+	}
+
+	public synchronized long allocatedBytesPerRun() {
+		return latencies.count() > 0 ? allocatedBytes / latencies.count() : 0;
+	}
+}
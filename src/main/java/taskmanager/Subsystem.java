@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The parts of the system that are sampled at their own rates. Data is collected in ticks at the highest of the rates,
+ * the other subsystems are sampled every {@link #samplePeriod()} ticks. Rates that don't divide the tick rate are
+ * rounded to the nearest period.
+ */
+public enum Subsystem {
+	Cpu(Config.KEY_CPU_UPDATE_RATE),
+	Memory(Config.KEY_MEMORY_UPDATE_RATE),
+	Network(Config.KEY_NETWORK_UPDATE_RATE),
+	Disk(Config.KEY_DISK_UPDATE_RATE),
+	Gpu(Config.KEY_GPU_UPDATE_RATE),
+	Processes(Config.KEY_PROCESS_UPDATE_RATE);
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Subsystem.class);
+
+	private final String rateKey;
+	private boolean hasWarnedAboutRate;
+
+	Subsystem(String rateKey) {
+		this.rateKey = rateKey;
+	}
+
+	/**
+	 * Returns the configured rate of this subsystem in Hz, the global update rate is used if no rate is configured or
+	 * if the rate is not a positive number.
+	 */
+	public float rate() {
+		String rate = Config.get(rateKey);
+		if (!rate.isBlank()) {
+			try {
+				float result = Float.parseFloat(rate);
+				if (result > 0) {
+					return result;
+				}
+			} catch (NumberFormatException e) {
+				// Handled below
+			}
+
+			if (!hasWarnedAboutRate) {
+				LOGGER.warn("Invalid {}: '{}', must be a positive number. Using {} instead", rateKey, rate, Config.KEY_UPDATE_RATE);
+				hasWarnedAboutRate = true;
+			}
+		}
+		return Config.getFloat(Config.KEY_UPDATE_RATE);
+	}
+
+	/**
+	 * Returns the number of ticks between two samples.
+	 */
+	public int samplePeriod() {
+		return Math.max(1, Math.round(tickRate() / rate()));
+	}
+
+	/**
+	 * Returns the number of samples needed to cover the history, see {@link #historyLength()}.
+	 */
+	public int bufferSize() {
+		int period = samplePeriod();
+		return (historyLength() + period - 1) / period;
+	}
+
+	/**
+	 * Returns the rate of the data collection ticks in Hz.
+	 */
+	public static float tickRate() {
+		float rate = 0;
+		for (Subsystem subsystem : values()) {
+			rate = Math.max(rate, subsystem.rate());
+		}
+		return rate;
+	}
+
+	/**
+	 * Returns the length of the history in ticks.
+	 */
+	public static int historyLength() {
+		return (int) (Config.getInt(Config.KEY_MAXIMUM_MEASURMENT_BUFFER_SIZE) * tickRate());
+	}
+}
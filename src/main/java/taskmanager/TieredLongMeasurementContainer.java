@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager;
+
+import config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+
+/**
+ * Long measurements with tiered retention. The newest values are kept as is, older values are rolled up into buckets
+ * of increasing length (e.g. 10 seconds for the last day and 1 minute for the last 30 days) that store the min,
+ * average and max of the values in them.
+ * <p>
+ * A value is rolled up when it is pruned from the raw values, and a bucket is rolled up into the next tier when it
+ * is pruned from its tier. The values of a bucket that is not complete yet are kept in an accumulator. Indices cover
+ * the total retention, indices in a bucket all read as the average of the bucket.
+ */
+public class TieredLongMeasurementContainer implements LongMeasurements {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TieredLongMeasurementContainer.class);
+
+	private static boolean hasWarnedAboutTiers;
+
+	private final long defaultValue;
+	private final int size;
+	private final int samplePeriod;
+
+	private final LongMeasurements raw;
+	private final Tier[] tiers;
+
+	private long rangeMin;
+	private long rangeMax;
+	private long rangeSum;
+
+	private final long[] outgoing = new long[1];
+
+	public TieredLongMeasurementContainer(Subsystem subsystem, long defaultValue) {
+		this(subsystem.bufferSize(), subsystem.samplePeriod(), parseTiers(Config.get(Config.KEY_MEASUREMENT_ROLLUP_TIERS),
+				Subsystem.tickRate() / subsystem.samplePeriod(), subsystem.bufferSize()), defaultValue);
+	}
+
+	/**
+	 * Each tier is a pair of {bucket length, retention} in number of values, where the retention includes the previous
+	 * tiers. Bucket lengths are rounded down to a multiple of the bucket length of the previous tier.
+	 */
+	public TieredLongMeasurementContainer(int rawSize, int samplePeriod, int[][] tierSpecifications, long defaultValue) {
+		this.defaultValue = defaultValue;
+		this.samplePeriod = samplePeriod;
+		raw = LongMeasurements.create(rawSize, samplePeriod, defaultValue);
+
+		tiers = new Tier[tierSpecifications.length];
+		int previousBucketSize = 1;
+		int covered = rawSize;
+		for (int i = 0; i < tiers.length; i++) {
+			int groupSize = Math.max(1, tierSpecifications[i][0] / previousBucketSize);
+			int bucketSize = groupSize * previousBucketSize;
+			int buckets = Math.max(1, (tierSpecifications[i][1] - covered) / bucketSize);
+			tiers[i] = new Tier(groupSize, bucketSize, buckets, bucketSize * samplePeriod, defaultValue);
+
+			previousBucketSize = bucketSize;
+			covered += buckets * bucketSize;
+		}
+		size = covered;
+	}
+
+	/**
+	 * Parses tiers on the form "bucketSeconds:retentionSeconds;...", e.g. "10:86400;60:2592000". The retention of each
+	 * tier must be at least one bucket longer than the raw values and the previous tiers. If the tiers are invalid a
+	 * warning is logged (once) and no tiers are used.
+	 */
+	static int[][] parseTiers(String tiers, float updateRate, int rawSize) {
+		if (tiers.isBlank()) {
+			return new int[0][];
+		}
+
+		try {
+			String[] tokens = tiers.split(";");
+			int[][] result = new int[tokens.length][];
+			int covered = rawSize;
+			for (int i = 0; i < tokens.length; i++) {
+				String[] parts = tokens[i].trim().split(":");
+				if (parts.length != 2)
+					throw new IllegalArgumentException("'" + tokens[i].trim() + "' is not on the form bucketSeconds:retentionSeconds");
+
+				int bucketSeconds = Integer.parseInt(parts[0].trim());
+				int retentionSeconds = Integer.parseInt(parts[1].trim());
+				if (bucketSeconds <= 0)
+					throw new IllegalArgumentException("the bucket length of '" + tokens[i].trim() + "' must be positive");
+
+				int bucket = Math.max(1, Math.round(bucketSeconds * updateRate));
+				int retention = Math.round(retentionSeconds * updateRate);
+				if (retention - covered < bucket)
+					throw new IllegalArgumentException("the retention of '" + tokens[i].trim() + "' must be at least one bucket longer than the previous tiers");
+
+				result[i] = new int[] {bucket, retention};
+				covered = retention;
+			}
+			return result;
+		} catch (IllegalArgumentException e) {
+			if (!hasWarnedAboutTiers) {
+				LOGGER.warn("Invalid {}: '{}', {}. Using no rollup tiers", Config.KEY_MEASUREMENT_ROLLUP_TIERS, tiers, e.getMessage());
+				hasWarnedAboutTiers = true;
+			}
+			return new int[0][];
+		}
+	}
+
+	@Override
+	public synchronized void copyFrom(Measurements<Long> otherRaw) {
+		TieredLongMeasurementContainer other = checkCompatible(otherRaw);
+
+		synchronized (other) {
+			raw.copyFrom(other.raw);
+			for (int i = 0; i < tiers.length; i++) {
+				tiers[i].copyFrom(other.tiers[i], false);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void copyDelta(Measurements<Long> otherRaw) {
+		TieredLongMeasurementContainer other = checkCompatible(otherRaw);
+
+		synchronized (other) {
+			raw.copyDelta(other.raw);
+			for (int i = 0; i < tiers.length; i++) {
+				tiers[i].copyFrom(other.tiers[i], true);
+			}
+		}
+	}
+
+	private TieredLongMeasurementContainer checkCompatible(Measurements<Long> otherRaw) {
+		if (!(otherRaw instanceof TieredLongMeasurementContainer))
+			throw new IllegalArgumentException("Argument must be a TieredLongMeasurementContainer!");
+
+		TieredLongMeasurementContainer other = (TieredLongMeasurementContainer) otherRaw;
+		if (other.size() != size() || other.tiers.length != tiers.length)
+			throw new IllegalArgumentException("Sizes must be equal!");
+
+		return other;
+	}
+
+	@Override
+	public void addValue(Long value) {
+		addValue(value.longValue());
+	}
+
+	@Override
+	public synchronized void addValue(long value) {
+		long pruned = outgoingValue(raw);
+		raw.addValue(value);
+		pruneSingle(0, pruned, pruned, pruned);
+	}
+
+	/**
+	 * Adds a value (or bucket) that was pruned from the previous tier to the accumulator of the tier, completed
+	 * buckets are added to the tier which in turn prunes its oldest bucket to the next tier.
+	 */
+	private void pruneSingle(int tierIndex, long min, long average, long max) {
+		if (tierIndex == tiers.length) {
+			return;
+		}
+
+		Tier tier = tiers[tierIndex];
+		if (tier.pending == 0) {
+			tier.pendingMin = min;
+			tier.pendingMax = max;
+			tier.pendingSum = 0;
+		} else {
+			tier.pendingMin = Math.min(tier.pendingMin, min);
+			tier.pendingMax = Math.max(tier.pendingMax, max);
+		}
+		tier.pendingSum += average;
+		tier.pending++;
+
+		if (tier.pending == tier.groupSize) {
+			long prunedMin = outgoingValue(tier.mins);
+			long prunedAverage = outgoingValue(tier.averages);
+			long prunedMax = outgoingValue(tier.maxs);
+
+			tier.mins.addValue(tier.pendingMin);
+			tier.averages.addValue(tier.pendingSum / tier.groupSize);
+			tier.maxs.addValue(tier.pendingMax);
+			tier.pending = 0;
+
+			pruneSingle(tierIndex + 1, prunedMin, prunedAverage, prunedMax);
+		}
+	}
+
+	/**
+	 * Returns the value at index 0, i.e. the value that is pruned by the next add. This is read explicitly since
+	 * oldestValue() of the run length encoded containers may return a run that starts before the window.
+	 */
+	private long outgoingValue(LongMeasurements values) {
+		values.readRange(0, 0, outgoing);
+		return outgoing[0];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int fullResolutionSize() {
+		return raw.size();
+	}
+
+	@Override
+	public int samplePeriod() {
+		return samplePeriod;
+	}
+
+	@Override
+	public int version() {
+		return raw.version();
+	}
+
+	@Override
+	public synchronized int realSize() {
+		int result = raw.realSize();
+		for (Tier tier : tiers) {
+			result += tier.mins.realSize() + tier.averages.realSize() + tier.maxs.realSize();
+		}
+		return result;
+	}
+
+	@Override
+	public Long newest() {
+		return newestValue();
+	}
+
+	@Override
+	public long newestValue() {
+		return raw.newestValue();
+	}
+
+	@Override
+	public Long oldest() {
+		return oldestValue();
+	}
+
+	@Override
+	public synchronized long oldestValue() {
+		aggregate(0, 0);
+		return rangeSum;
+	}
+
+	@Override
+	public Long max() {
+		return maxValue();
+	}
+
+	@Override
+	public synchronized long maxValue() {
+		return maxValue(0, size - 1);
+	}
+
+	@Override
+	public Long min() {
+		return minValue();
+	}
+
+	@Override
+	public synchronized long minValue() {
+		return minValue(0, size - 1);
+	}
+
+	@Override
+	public Long max(int startIndex, int endIndex) {
+		return maxValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long maxValue(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		aggregate(startIndex, endIndex);
+		return rangeMax;
+	}
+
+	@Override
+	public Long min(int startIndex, int endIndex) {
+		return minValue(startIndex, endIndex);
+	}
+
+	@Override
+	public synchronized long minValue(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		aggregate(startIndex, endIndex);
+		return rangeMin;
+	}
+
+	@Override
+	public synchronized long sum(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		aggregate(startIndex, endIndex);
+		return rangeSum;
+	}
+
+	@Override
+	public synchronized void averageRange(int startIndex, int stepSize, int steps, long[] destination) {
+		if (steps == 0) {
+			return;
+		}
+		checkRange(startIndex, startIndex + stepSize * steps - 1);
+		for (int i = 0; i < steps; i++) {
+			int start = startIndex + i * stepSize;
+			aggregate(start, start + stepSize - 1);
+			destination[i] = rangeSum / stepSize;
+		}
+	}
+
+	/**
+	 * Computes the min, max and sum of the range from the raw values, the accumulators and the tiers that overlap it.
+	 * The result is stored in rangeMin, rangeMax and rangeSum.
+	 */
+	private void aggregate(int startIndex, int endIndex) {
+		rangeMin = Long.MAX_VALUE;
+		rangeMax = Long.MIN_VALUE;
+		rangeSum = 0;
+
+		// Regions are visited from the newest to the oldest, each region ends right before the previous one
+		int regionEnd = size - 1;
+		int regionStart = size - raw.size();
+		if (endIndex >= regionStart) {
+			int from = Math.max(startIndex, regionStart) - regionStart;
+			int to = endIndex - regionStart;
+			combine(raw.minValue(from, to), raw.maxValue(from, to), raw.sum(from, to));
+		}
+
+		int previousBucketSize = 1;
+		for (Tier tier : tiers) {
+			regionEnd = regionStart - 1;
+			regionStart -= tier.pending * previousBucketSize;
+			int from = Math.max(startIndex, regionStart);
+			int to = Math.min(endIndex, regionEnd);
+			if (from <= to) {
+				combine(tier.pendingMin, tier.pendingMax, tier.pendingSum / tier.pending * (to - from + 1));
+			}
+
+			regionEnd = regionStart - 1;
+			regionStart -= tier.buckets * tier.bucketSize;
+			from = Math.max(startIndex, regionStart);
+			to = Math.min(endIndex, regionEnd);
+			if (from <= to) {
+				int firstBucket = tier.bucketAt(from, regionEnd);
+				int lastBucket = tier.bucketAt(to, regionEnd);
+				long sum = tier.averages.sum(firstBucket, lastBucket) * tier.bucketSize;
+				sum -= tier.averages.sum(firstBucket, firstBucket) * (from - tier.bucketStart(firstBucket, regionEnd));
+				sum -= tier.averages.sum(lastBucket, lastBucket) * (tier.bucketStart(lastBucket, regionEnd) + tier.bucketSize - 1 - to);
+				combine(tier.mins.minValue(firstBucket, lastBucket), tier.maxs.maxValue(firstBucket, lastBucket), sum);
+			}
+
+			previousBucketSize = tier.bucketSize;
+		}
+	}
+
+	private void combine(long min, long max, long sum) {
+		rangeMin = Math.min(rangeMin, min);
+		rangeMax = Math.max(rangeMax, max);
+		rangeSum += sum;
+	}
+
+	@Override
+	public synchronized void readRange(int startIndex, int endIndex, long[] destination) {
+		checkRange(startIndex, endIndex);
+
+		int regionStart = size - raw.size();
+		if (endIndex >= regionStart) {
+			int from = Math.max(startIndex, regionStart);
+			long[] values = new long[endIndex - from + 1];
+			raw.readRange(from - regionStart, endIndex - regionStart, values);
+			System.arraycopy(values, 0, destination, from - startIndex, values.length);
+		}
+
+		int previousBucketSize = 1;
+		for (Tier tier : tiers) {
+			int regionEnd = regionStart - 1;
+			regionStart -= tier.pending * previousBucketSize;
+			for (int i = Math.max(startIndex, regionStart); i <= Math.min(endIndex, regionEnd); i++) {
+				destination[i - startIndex] = tier.pendingSum / tier.pending;
+			}
+
+			regionEnd = regionStart - 1;
+			regionStart -= tier.buckets * tier.bucketSize;
+			int from = Math.max(startIndex, regionStart);
+			int to = Math.min(endIndex, regionEnd);
+			if (from <= to) {
+				int firstBucket = tier.bucketAt(from, regionEnd);
+				long[] averages = new long[tier.bucketAt(to, regionEnd) - firstBucket + 1];
+				tier.averages.readRange(firstBucket, firstBucket + averages.length - 1, averages);
+				for (int i = from; i <= to; i++) {
+					destination[i - startIndex] = averages[tier.bucketAt(i, regionEnd) - firstBucket];
+				}
+			}
+
+			previousBucketSize = tier.bucketSize;
+		}
+	}
+
+	@Override
+	public void readRange(int startIndex, int endIndex, Long[] destination) {
+		long[] values = new long[endIndex - startIndex + 1];
+		readRange(startIndex, endIndex, values);
+		for (int i = 0; i < values.length; i++) {
+			destination[i] = values[i];
+		}
+	}
+
+	private void checkRange(int startIndex, int endIndex) {
+		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
+			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
+	}
+
+	@Override
+	public Iterator<Long> getRangeIterator(int startIndex, int endIndex) {
+		long[] values = new long[endIndex - startIndex + 1];
+		readRange(startIndex, endIndex, values);
+		return new Iterator<>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < values.length;
+			}
+
+			@Override
+			public Long next() {
+				if (!hasNext())
+					throw new IllegalStateException("The iterator is empty!");
+				return values[index++];
+			}
+		};
+	}
+
+
+	private static class Tier {
+		private final int groupSize; // Number of values (or buckets) from the previous tier per bucket
+		private final int bucketSize; // Number of raw values per bucket
+		private final int buckets;
+
+		private final LongMeasurements mins;
+		private final LongMeasurements averages;
+		private final LongMeasurements maxs;
+
+		private int pending;
+		private long pendingMin;
+		private long pendingMax;
+		private long pendingSum;
+
+		Tier(int groupSize, int bucketSize, int buckets, int samplePeriod, long defaultValue) {
+			this.groupSize = groupSize;
+			this.bucketSize = bucketSize;
+			this.buckets = buckets;
+			mins = LongMeasurements.create(buckets, samplePeriod, defaultValue);
+			averages = LongMeasurements.create(buckets, samplePeriod, defaultValue);
+			maxs = LongMeasurements.create(buckets, samplePeriod, defaultValue);
+		}
+
+		void copyFrom(Tier other, boolean delta) {
+			if (delta) {
+				mins.copyDelta(other.mins);
+				averages.copyDelta(other.averages);
+				maxs.copyDelta(other.maxs);
+			} else {
+				mins.copyFrom(other.mins);
+				averages.copyFrom(other.averages);
+				maxs.copyFrom(other.maxs);
+			}
+			pending = other.pending;
+			pendingMin = other.pendingMin;
+			pendingMax = other.pendingMax;
+			pendingSum = other.pendingSum;
+		}
+
+		/**
+		 * Returns the bucket containing the index, where regionEnd is the index of the last value in the newest bucket.
+		 */
+		int bucketAt(int index, int regionEnd) {
+			return buckets - 1 - (regionEnd - index) / bucketSize;
+		}
+
+		int bucketStart(int bucket, int regionEnd) {
+			return regionEnd - (buckets - bucket) * bucketSize + 1;
+		}
+	}
+}
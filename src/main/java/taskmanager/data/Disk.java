@@ -11,14 +11,14 @@
 
 package taskmanager.data;
 
-import taskmanager.MeasurementContainer;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 
 public class Disk {
-	public Measurements<Long> writeRate;
-	public Measurements<Long> readRate;
-	public Measurements<Double> activeFraction; // TODO Replace with long!
-	public Measurements<Long> ioQueueLength;
+	public LongMeasurements writeRate;
+	public LongMeasurements readRate;
+	public LongMeasurements activeFraction; // Fixed point, multiplied by Config.DOUBLE_TO_LONG
+	public LongMeasurements ioQueueLength;
 
 	public int index;
 	public String name;
@@ -26,10 +26,10 @@ public class Disk {
 	public long size;
 
 	public Disk() {
-		writeRate = new MeasurementContainer<>(0L);
-		readRate = new MeasurementContainer<>(0L);
-		activeFraction = new MeasurementContainer<>(0d);
-		ioQueueLength = new MeasurementContainer<>(0L);
+		writeRate = LongMeasurements.createWithHistory(Subsystem.Disk, 0);
+		readRate = LongMeasurements.createWithHistory(Subsystem.Disk, 0);
+		activeFraction = LongMeasurements.createWithHistory(Subsystem.Disk, 0);
+		ioQueueLength = LongMeasurements.createWithHistory(Subsystem.Disk, 0);
 	}
 
 	void copyFrom(Disk other, boolean doFullCopy) {
@@ -11,8 +11,8 @@
 
 package taskmanager.data;
 
-import taskmanager.MeasurementContainer;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 
 public class Gpu {
 	public enum Type {
@@ -22,12 +22,12 @@ public class Gpu {
 		Unknown
 	}
 
-	public Measurements<Long> usedMemory;
-	public Measurements<Long> utilization;
-	public Measurements<Long> temperature;
+	public LongMeasurements usedMemory;
+	public LongMeasurements utilization;
+	public LongMeasurements temperature;
 
-	public Measurements<Long> encoderUtilization;
-	public Measurements<Long> decoderUtilization;
+	public LongMeasurements encoderUtilization;
+	public LongMeasurements decoderUtilization;
 
 	public int index;
 	public Type type;
@@ -44,11 +44,22 @@ public class Gpu {
 	public boolean decoderSupported;
 
 	public Gpu() {
-		usedMemory = new MeasurementContainer<>(0L);
-		utilization = new MeasurementContainer<>(0L);
-		temperature = new MeasurementContainer<>(0L);
-		encoderUtilization = new MeasurementContainer<>(0L);
-		decoderUtilization = new MeasurementContainer<>(0L);
+		usedMemory = LongMeasurements.createWithHistory(Subsystem.Gpu, 0);
+		utilization = LongMeasurements.createWithHistory(Subsystem.Gpu, 0);
+		temperature = LongMeasurements.createWithHistory(Subsystem.Gpu, 0);
+		encoderUtilization = LongMeasurements.createWithHistory(Subsystem.Gpu, 0);
+		decoderUtilization = LongMeasurements.createWithHistory(Subsystem.Gpu, 0);
+	}
+
+	/**
+	 * Repeats the newest values when the GPU is not sampled.
+	 */
+	public void holdValues() {
+		usedMemory.addValue(usedMemory.newestValue());
+		utilization.addValue(utilization.newestValue());
+		temperature.addValue(temperature.newestValue());
+		encoderUtilization.addValue(encoderUtilization.newestValue());
+		decoderUtilization.addValue(decoderUtilization.newestValue());
 	}
 
 	void copyFrom(Gpu other, boolean doFullCopy) {
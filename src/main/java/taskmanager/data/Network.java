@@ -11,12 +11,12 @@
 
 package taskmanager.data;
 
-import taskmanager.MeasurementContainer;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 
 public class Network {
-	public Measurements<Long> inRate;
-	public Measurements<Long> outRate;
+	public LongMeasurements inRate;
+	public LongMeasurements outRate;
 
 	public String macAddress;
 	public String[] ipv4Addresses;
@@ -27,8 +27,8 @@ public class Network {
 	public boolean isEnabled;
 
 	public Network() {
-		inRate = new MeasurementContainer<>(0L);
-		outRate = new MeasurementContainer<>(0L);
+		inRate = LongMeasurements.createWithHistory(Subsystem.Network, 0);
+		outRate = LongMeasurements.createWithHistory(Subsystem.Network, 0);
 
 		ipv4Addresses = new String[0];
 		ipv6Addresses = new String[0];
@@ -12,8 +12,8 @@
 package taskmanager.data;
 
 import config.Config;
-import taskmanager.MeasurementContainer;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 
 import java.text.Collator;
 import java.util.Comparator;
@@ -23,21 +23,30 @@ public class Process {
 	public long id;
 	public long parentUniqueId;
 	public long parentId;
-	public Measurements<Long> privateWorkingSet;
+	public LongMeasurements privateWorkingSet;
 	public String fileName;
 	public String filePath;
 	public String commandLine;
 	public String description;
 	public String userName;
-	public Measurements<Long> cpuUsage;
-	public Measurements<Long> cpuTime;
+	public LongMeasurements cpuUsage;
+	public LongMeasurements cpuTime;
 	public Status status;
 	public long startTimestamp;
 	public long deathTimestamp;
 
 	/** This happens for OSX where we can't get metrics for processes owned by other users */
 	public boolean missingCpuAndMemoryMetrics;
+	/** Set when reading the command line and path of the process timed out, they are retried later */
+	public boolean hasDegradedMetadata;
 	public boolean hasReadOnce;
+	public int threadCount;
+
+	/** Updates in a row where the process used no CPU and its memory did not change, used to sample it less often */
+	public int idleUpdates;
+
+	/** The {@link SystemInformation#processesVersion} when the process was last updated by a loader */
+	public long version;
 
 	private long lastSysCpu;
 	private long lastUserCpu;
@@ -46,14 +55,14 @@ public class Process {
 	public Process(long uniqueId, long id) {
 		this.uniqueId = uniqueId;
 		this.id = id;
-		privateWorkingSet = new MeasurementContainer<>(0L);
+		privateWorkingSet = LongMeasurements.create(Subsystem.Processes, 0);
 		fileName = "";
 		filePath = "";
 		commandLine = "";
 		description = "";
 		userName = "Unknown";
-		cpuUsage = new MeasurementContainer<>(0L);
-		cpuTime = new MeasurementContainer<>(0L);
+		cpuUsage = LongMeasurements.create(Subsystem.Processes, 0);
+		cpuTime = LongMeasurements.create(Subsystem.Processes, 0);
 		status = Status.Running;
 	}
 
@@ -76,18 +85,36 @@ public class Process {
 			cpuUsage.copyFrom(other.cpuUsage);
 			cpuTime.copyFrom(other.cpuTime);
 		} else {
-			privateWorkingSet.copyDelta(other.privateWorkingSet);
-			cpuUsage.copyDelta(other.cpuUsage);
-			cpuTime.copyDelta(other.cpuTime);
+			copyDeltaIfChanged(privateWorkingSet, other.privateWorkingSet);
+			copyDeltaIfChanged(cpuUsage, other.cpuUsage);
+			copyDeltaIfChanged(cpuTime, other.cpuTime);
 		}
 
 		missingCpuAndMemoryMetrics = other.missingCpuAndMemoryMetrics;
+		hasDegradedMetadata = other.hasDegradedMetadata;
 		hasReadOnce = other.hasReadOnce;
+		version = other.version;
 
 		lastSysCpu = other.lastSysCpu;
 		lastUserCpu = other.lastUserCpu;
 	}
 
+	private static void copyDeltaIfChanged(LongMeasurements target, LongMeasurements source) {
+		if (target.version() != source.version()) {
+			target.copyDelta(source);
+		}
+	}
+
+	/**
+	 * Repeats the newest values when the process is not sampled, the CPU time of the skipped samples is included in
+	 * the next sample instead.
+	 */
+	public void holdValues() {
+		privateWorkingSet.addValue(privateWorkingSet.newestValue());
+		cpuUsage.addValue(cpuUsage.newestValue());
+		cpuTime.addValue(0);
+	}
+
 	public void updateCpu(long sysCpu, long userCpu, long totalCpuDelta, int numCores) {
 		if (lastSysCpu != 0 || lastUserCpu != 0) {
 			long newCpuTime = sysCpu - lastSysCpu + userCpu - lastUserCpu;
@@ -134,14 +161,14 @@ public class Process {
 	public static class CpuUsageComparator extends ProcessComparator {
 		@Override
 		public int doCompare(Process o1, Process o2) {
-			return Double.compare(o2.cpuUsage.newest(), o1.cpuUsage.newest());
+			return Long.compare(o2.cpuUsage.newestValue(), o1.cpuUsage.newestValue());
 		}
 	}
 
 	public static class PrivateWorkingSetComparator extends ProcessComparator {
 		@Override
 		public int doCompare(Process o1, Process o2) {
-			return Long.compare(o2.privateWorkingSet.newest(), o1.privateWorkingSet.newest());
+			return Long.compare(o2.privateWorkingSet.newestValue(), o1.privateWorkingSet.newestValue());
 		}
 	}
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * List of processes that is indexed by both pid and unique id, so processes can be looked up without scanning the
+ * list. All modifications must go through the list (including its iterators) for the indices to stay consistent, and
+ * the ids of a process must not change while it is in the list. Replacing elements is not supported, use
+ * {@link #sort(Comparator)} to reorder the list.
+ * <p>
+ * The unique ids are unique but the same pid may be in the list several times (e.g. among the dead processes), then
+ * the pid index refers to one of them.
+ */
+public class ProcessList extends AbstractList<Process> implements RandomAccess {
+	private final List<Process> processes;
+	private final LongHashMap<Process> processesById;
+	private final LongHashMap<Process> processesByUniqueId;
+
+	public ProcessList() {
+		processes = new ArrayList<>();
+		processesById = new LongHashMap<>();
+		processesByUniqueId = new LongHashMap<>();
+	}
+
+	public Process getById(long pid) {
+		return processesById.get(pid);
+	}
+
+	public Process getByUniqueId(long uniqueId) {
+		return processesByUniqueId.get(uniqueId);
+	}
+
+	@Override
+	public Process get(int index) {
+		return processes.get(index);
+	}
+
+	@Override
+	public int size() {
+		return processes.size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Process && processesByUniqueId.get(((Process) o).uniqueId) == o;
+	}
+
+	@Override
+	public void add(int index, Process process) {
+		if (processesByUniqueId.containsKey(process.uniqueId)) {
+			throw new IllegalArgumentException("Process " + process.uniqueId + " is already in the list");
+		}
+		processes.add(index, process);
+		index(process);
+		modCount++;
+	}
+
+	@Override
+	public Process remove(int index) {
+		Process process = processes.remove(index);
+		unindex(process);
+		restoreDuplicatePids();
+		modCount++;
+		return process;
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Process> filter) {
+		boolean isRemoved = processes.removeIf(process -> {
+			if (filter.test(process)) {
+				unindex(process);
+				return true;
+			}
+			return false;
+		});
+		if (isRemoved) {
+			restoreDuplicatePids();
+			modCount++;
+		}
+		return isRemoved;
+	}
+
+	@Override
+	public void clear() {
+		processes.clear();
+		processesById.clear();
+		processesByUniqueId.clear();
+		modCount++;
+	}
+
+	/**
+	 * Sorts the processes without touching the indices, since the content of the list does not change.
+	 */
+	@Override
+	public void sort(Comparator<? super Process> comparator) {
+		processes.sort(comparator);
+		modCount++;
+	}
+
+	private void index(Process process) {
+		processesById.put(process.id, process);
+		processesByUniqueId.put(process.uniqueId, process);
+	}
+
+	private void unindex(Process process) {
+		processesByUniqueId.remove(process.uniqueId);
+		if (processesById.get(process.id) == process) {
+			processesById.remove(process.id);
+		}
+	}
+
+	/**
+	 * Indexes the processes that share a pid with a removed process, if there are any such processes left.
+	 */
+	private void restoreDuplicatePids() {
+		if (processes.size() > processesById.size()) {
+			for (Process process : processes) {
+				if (!processesById.containsKey(process.id)) {
+					processesById.put(process.id, process);
+				}
+			}
+		}
+	}
+}
@@ -11,13 +11,8 @@
 
 package taskmanager.data;
 
-import taskmanager.MeasurementContainer;
-import taskmanager.Measurements;
-
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 
 public class SystemInformation {
 	/* Time data */
@@ -29,8 +24,8 @@ public class SystemInformation {
 
 	public long physicalMemoryTotalInstalled; // Includes reserved memory
 	public long physicalMemoryTotal;
-	public Measurements<Long> memoryUsed;
-	public Measurements<TopList> memoryUsedTopList;
+	public LongMeasurements memoryUsed;
+	public TopListMeasurementContainer memoryUsedTopList;
 
 	// Memory types shown in the memory composition (expanded in extraInformation)
 	public long reservedMemory;
@@ -40,15 +35,17 @@ public class SystemInformation {
 	public int logicalProcessorCount;
 	public int physicalProcessorCount;
 
-	public Measurements<Short>[] cpuUsagePerCore;
-	public Measurements<Short> cpuUsageTotal;
-	public Measurements<TopList> cpuTopList;
+	public LongMeasurements[] cpuUsagePerCore;
+	public LongMeasurements cpuUsageTotal;
+	public TopListMeasurementContainer cpuTopList;
 
 	public int totalProcesses;
 	public int totalThreads;
 
-	public List<Process> processes;
-	public List<Process> deadProcesses;
+	public ProcessList processes;
+	public ProcessList deadProcesses;
+	// Incremented at every update, the loaders set the version of each process they update to it
+	public long processesVersion;
 
 	/* Network data */
 	public Network[] networks;
@@ -64,24 +61,22 @@ public class SystemInformation {
 
 	public ExtraInformation extraInformation;
 
-	@SuppressWarnings("unchecked")
 	public SystemInformation() {
-		memoryUsed = new MeasurementContainer<>(0L);
-		memoryUsedTopList = new MeasurementContainer<>(TopList.EMPTY);
-		cpuUsagePerCore = new MeasurementContainer[0];
-		cpuUsageTotal = new MeasurementContainer<>((short) 0);
-		cpuTopList = new MeasurementContainer<>(TopList.EMPTY);
-		processes = new ArrayList<>();
-		deadProcesses = new ArrayList<>();
+		memoryUsed = LongMeasurements.createWithHistory(Subsystem.Memory, 0);
+		memoryUsedTopList = new TopListMeasurementContainer();
+		cpuUsagePerCore = new LongMeasurements[0];
+		cpuUsageTotal = LongMeasurements.createWithHistory(Subsystem.Cpu, 0);
+		cpuTopList = new TopListMeasurementContainer();
+		processes = new ProcessList();
+		deadProcesses = new ProcessList();
 		networks = new Network[0];
 		disks = new Disk[0];
 		gpus = new Gpu[0];
 	}
 
-	@SuppressWarnings("unchecked")
 	public void copyFrom(SystemInformation other) {
 		if (cpuUsagePerCore.length != other.cpuUsagePerCore.length) {
-			cpuUsagePerCore = new MeasurementContainer[other.cpuUsagePerCore.length];
+			cpuUsagePerCore = new LongMeasurements[other.cpuUsagePerCore.length];
 		}
 		if (networks.length != other.networks.length) {
 			networks = new Network[other.networks.length];
@@ -112,7 +107,7 @@ public class SystemInformation {
 
 		for (int i = 0; i < cpuUsagePerCore.length; i++) {
 			if (cpuUsagePerCore[i] == null) {
-				cpuUsagePerCore[i] = new MeasurementContainer<>((short) 0);
+				cpuUsagePerCore[i] = LongMeasurements.createWithHistory(Subsystem.Cpu, 0);
 			}
 			cpuUsagePerCore[i].copyDelta(other.cpuUsagePerCore[i]);
 		}
@@ -172,50 +167,54 @@ public class SystemInformation {
 	}
 
 	private void copyProcesses(SystemInformation other) {
-		copyProcessesFor(other.processes, processes);
-		copyProcessesFor(other.deadProcesses, deadProcesses);
+		// All the processes that have not been updated since our last copy are already up to date, unless we were
+		// copied from something else
+		long copiedVersion = other.processesVersion >= processesVersion ? processesVersion : -1;
+		copyProcessesFor(other.processes, processes, copiedVersion);
+		copyProcessesFor(other.deadProcesses, deadProcesses, copiedVersion);
+		processesVersion = other.processesVersion;
 	}
 
-	private void copyProcessesFor(List<Process> source, List<Process> target) {
-		Set<Long> processIds = new HashSet<>();
-		for (Process processNew : source) {
-			Process process = null;
-			for (Process processOld : target) {
-				if (processNew.uniqueId == processOld.uniqueId) {
-					process = processOld;
-					break;
-				}
+	/**
+	 * Merges the source processes into the target using the unique id indices of the lists. Only the processes that
+	 * were updated after the copied version are looked up and copied, the others are already in the target.
+	 */
+	private static void copyProcessesFor(ProcessList source, ProcessList target, long copiedVersion) {
+		for (int i = 0; i < source.size(); i++) {
+			Process processNew = source.get(i);
+			if (processNew.version <= copiedVersion) {
+				continue;
 			}
+
+			Process process = target.getByUniqueId(processNew.uniqueId);
 			boolean isNew = false;
 			if (process == null) {
 				process = new Process(processNew.uniqueId, processNew.id);
 				target.add(process);
 				isNew = true;
 			}
-
-			processIds.add(process.uniqueId);
 			process.copyFrom(processNew, isNew);
 		}
 
-		// Remove old processes
-		target.removeIf(process -> !processIds.contains(process.uniqueId));
+		// Remove old processes, all the processes in the target are also in the source if the sizes are equal
+		if (target.size() > source.size()) {
+			target.removeIf(process -> source.getByUniqueId(process.uniqueId) == null);
+		}
 	}
 
 	public Process getProcessById(long pid) {
-		for (Process process : processes) {
-			if (process.id == pid) {
-				return process;
-			}
-		}
-		return null;
+		return processes.getById(pid);
 	}
 
-	public Process getDeadProcessById(long pid) { // TODO Might be multiple with the same ID
-		for (Process process : deadProcesses) {
-			if (process.id == pid) {
-				return process;
-			}
-		}
-		return null;
+	public Process getProcessByUniqueId(long uniqueId) {
+		return processes.getByUniqueId(uniqueId);
+	}
+
+	public Process getDeadProcessById(long pid) { // Might be multiple with the same ID, returns the one that died last
+		return deadProcesses.getById(pid);
+	}
+
+	public Process getDeadProcessByUniqueId(long uniqueId) {
+		return deadProcesses.getByUniqueId(uniqueId);
 	}
 }
\ No newline at end of file
@@ -13,66 +13,53 @@ package taskmanager.data;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
+/**
+ * The processes with the highest value of some metric, as primitive arrays of unique ids and values. Processes are
+ * only referenced by id so that top lists do not keep dead processes alive, see {@link TopListMeasurementContainer}
+ * for their names.
+ */
 public class TopList implements Comparable<TopList> { // TODO Support TopLists of Short!
 	public static final TopList EMPTY = new TopList(0);
 
-	public final Entry[] entries;
+	public final long[] uniqueIds;
+	public final long[] values;
 
 	public TopList(int size) {
-		this.entries = new Entry[size];
+		this.uniqueIds = new long[size];
+		this.values = new long[size];
 	}
 
-	public static TopList of(Function<Process, Long> extractor, List<Process> processes, int length) {
+	public static TopList of(ToLongFunction<Process> extractor, List<Process> processes, int length) {
 		TopList topList = new TopList(Math.min(length, processes.size()));
-		for (int i = 0; i < topList.entries.length; i++) {
-			topList.entries[i] = new Entry(extractor.apply(processes.get(i)), processes.get(i));
+		for (int i = 0; i < topList.size(); i++) {
+			topList.uniqueIds[i] = processes.get(i).uniqueId;
+			topList.values[i] = extractor.applyAsLong(processes.get(i));
 		}
 		return topList;
 	}
 
+	public int size() {
+		return uniqueIds.length;
+	}
+
 	@Override
 	public boolean equals(Object other) {
 		if (other instanceof TopList) {
-			return Arrays.equals(entries, ((TopList) other).entries);
+			TopList otherTopList = (TopList) other;
+			return Arrays.equals(uniqueIds, otherTopList.uniqueIds) && Arrays.equals(values, otherTopList.values);
 		}
 		return false;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash((Object[]) entries);
+		return 31 * Arrays.hashCode(uniqueIds) + Arrays.hashCode(values);
 	}
 
 	@Override
 	public int compareTo(TopList topList) {
 		throw new UnsupportedOperationException("Can't compare two toplists!");
 	}
-
-
-	public static class Entry {
-		public final long value;
-		public final Process process;
-
-		public Entry(long value, Process process) {
-			this.value = value;
-			this.process = process;
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			if (obj instanceof Entry) {
-				Entry otherEntry = (Entry) obj;
-				return value == otherEntry.value && process.uniqueId == otherEntry.process.uniqueId;
-			}
-			return false;
-		}
-
-		@Override
-		public int hashCode() {
-			return Objects.hash(value, process.uniqueId);
-		}
-	}
 }
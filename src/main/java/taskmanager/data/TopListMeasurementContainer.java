@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager.data;
+
+import taskmanager.Measurements;
+import taskmanager.Subsystem;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Top lists over time, together with the name and id of each process in them. The top lists are stored in flat ring
+ * arrays of unique ids and values like the long containers, the top list added at time t is at slot t % size and
+ * takes up {@code width} entries from slot * width (top lists are at most that long, the arrays are widened when a
+ * longer top list is added). Adding a top list copies it into the arrays, and {@link #copyDelta} only copies the
+ * slots that were added since the last copy. {@link TopList} objects are created when the top lists are read, equal
+ * consecutive top lists are read as the same object.
+ * <p>
+ * The names are kept in a separate table that is pruned when a process has not been in a top list for the length of
+ * the buffer, processes are never referenced directly so their measurements can be collected as soon as they are
+ * removed from the dead processes.
+ */
+public class TopListMeasurementContainer implements Measurements<TopList> {
+	private static final ProcessInfo UNKNOWN_PROCESS = new ProcessInfo("", -1, 0);
+
+	private final int size;
+	private final int samplePeriod;
+
+	private int width;
+	private long[] uniqueIds;
+	private long[] values;
+	private final int[] lengths;
+
+	private final Map<Long, ProcessInfo> processes;
+	private int time;
+
+	public TopListMeasurementContainer() {
+		this(Subsystem.Processes.bufferSize(), Subsystem.Processes.samplePeriod());
+	}
+
+	public TopListMeasurementContainer(int size) {
+		this(size, 1);
+	}
+
+	public TopListMeasurementContainer(int size, int samplePeriod) {
+		this.size = size;
+		this.samplePeriod = samplePeriod;
+		uniqueIds = new long[0];
+		values = new long[0];
+		lengths = new int[size];
+		processes = new HashMap<>();
+	}
+
+	/**
+	 * Adds a top list of the first processes of a sorted list and remembers their names.
+	 */
+	public synchronized void addTopList(ToLongFunction<Process> extractor, List<Process> sortedProcesses, int length) {
+		int topListLength = Math.min(length, sortedProcesses.size());
+		int offset = beginAdd(topListLength);
+		for (int i = 0; i < topListLength; i++) {
+			Process process = sortedProcesses.get(i);
+			uniqueIds[offset + i] = process.uniqueId;
+			values[offset + i] = extractor.applyAsLong(process);
+
+			ProcessInfo info = processes.get(process.uniqueId);
+			if (info == null || !info.fileName.equals(process.fileName)) {
+				processes.put(process.uniqueId, new ProcessInfo(process.fileName, process.id, time));
+			} else {
+				info.lastSeen = time;
+			}
+		}
+		endAdd();
+	}
+
+	@Override
+	public synchronized void addValue(TopList value) {
+		int offset = beginAdd(value.size());
+		System.arraycopy(value.uniqueIds, 0, uniqueIds, offset, value.size());
+		System.arraycopy(value.values, 0, values, offset, value.size());
+		endAdd();
+	}
+
+	/**
+	 * Repeats the newest top list, without creating a {@link TopList}.
+	 */
+	public synchronized void holdNewest() {
+		if (time == 0) {
+			addValue(TopList.EMPTY);
+			return;
+		}
+
+		int newest = (time - 1) % size;
+		int length = lengths[newest];
+		int offset = beginAdd(length);
+		System.arraycopy(uniqueIds, newest * width, uniqueIds, offset, length);
+		System.arraycopy(values, newest * width, values, offset, length);
+		endAdd();
+	}
+
+	/**
+	 * Makes room for a top list of the given length in the slot of the current time and returns its offset.
+	 */
+	private int beginAdd(int length) {
+		if (length > width) {
+			widen(length);
+		}
+		int slot = time % size;
+		lengths[slot] = length;
+		return slot * width;
+	}
+
+	private void endAdd() {
+		time += 1;
+
+		Iterator<ProcessInfo> itr = processes.values().iterator();
+		while (itr.hasNext()) {
+			if (time - itr.next().lastSeen > size) {
+				itr.remove();
+			}
+		}
+	}
+
+	private void widen(int newWidth) {
+		long[] newUniqueIds = new long[size * newWidth];
+		long[] newValues = new long[size * newWidth];
+		for (int slot = 0; slot < size; slot++) {
+			System.arraycopy(uniqueIds, slot * width, newUniqueIds, slot * newWidth, lengths[slot]);
+			System.arraycopy(values, slot * width, newValues, slot * newWidth, lengths[slot]);
+		}
+		uniqueIds = newUniqueIds;
+		values = newValues;
+		width = newWidth;
+	}
+
+	@Override
+	public synchronized void copyFrom(Measurements<TopList> otherRaw) {
+		TopListMeasurementContainer other = checkCompatible(otherRaw);
+		synchronized (other) {
+			if (width != other.width) {
+				width = other.width;
+				uniqueIds = new long[other.uniqueIds.length];
+				values = new long[other.values.length];
+			}
+			System.arraycopy(other.uniqueIds, 0, uniqueIds, 0, uniqueIds.length);
+			System.arraycopy(other.values, 0, values, 0, values.length);
+			System.arraycopy(other.lengths, 0, lengths, 0, size);
+			time = other.time;
+			copyProcesses(other);
+		}
+	}
+
+	@Override
+	public synchronized void copyDelta(Measurements<TopList> otherRaw) {
+		TopListMeasurementContainer other = checkCompatible(otherRaw);
+		synchronized (other) {
+			if (width != other.width || other.time < time || other.time - time >= size) {
+				copyFrom(other);
+				return;
+			}
+
+			for (int t = time; t < other.time; t++) {
+				int slot = t % size;
+				int length = other.lengths[slot];
+				System.arraycopy(other.uniqueIds, slot * width, uniqueIds, slot * width, length);
+				System.arraycopy(other.values, slot * width, values, slot * width, length);
+				lengths[slot] = length;
+			}
+			time = other.time;
+			copyProcesses(other);
+		}
+	}
+
+	private TopListMeasurementContainer checkCompatible(Measurements<TopList> otherRaw) {
+		if (!(otherRaw instanceof TopListMeasurementContainer))
+			throw new IllegalArgumentException("Argument must be a TopListMeasurementContainer!");
+
+		if (otherRaw.size() != size())
+			throw new IllegalArgumentException("Sizes must be equal!");
+
+		return (TopListMeasurementContainer) otherRaw;
+	}
+
+	private void copyProcesses(TopListMeasurementContainer other) {
+		processes.keySet().retainAll(other.processes.keySet());
+		processes.putAll(other.processes);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int samplePeriod() {
+		return samplePeriod;
+	}
+
+	@Override
+	public synchronized int version() {
+		return time;
+	}
+
+	@Override
+	public synchronized int realSize() {
+		return Math.min(time, size);
+	}
+
+	@Override
+	public synchronized TopList newest() {
+		return topListAt(time - 1);
+	}
+
+	@Override
+	public synchronized TopList oldest() {
+		return topListAt(time - size);
+	}
+
+	@Override
+	public TopList max() {
+		throw new UnsupportedOperationException("Can't compare two toplists!");
+	}
+
+	@Override
+	public TopList min() {
+		throw new UnsupportedOperationException("Can't compare two toplists!");
+	}
+
+	@Override
+	public TopList max(int startIndex, int endIndex) {
+		throw new UnsupportedOperationException("Can't compare two toplists!");
+	}
+
+	@Override
+	public TopList min(int startIndex, int endIndex) {
+		throw new UnsupportedOperationException("Can't compare two toplists!");
+	}
+
+	@Override
+	public synchronized void readRange(int startIndex, int endIndex, TopList[] destination) {
+		checkRange(startIndex, endIndex);
+		int startTime = time - size + startIndex;
+		TopList previous = null;
+		for (int i = 0; i <= endIndex - startIndex; i++) {
+			previous = topListAt(startTime + i, previous);
+			destination[i] = previous;
+		}
+	}
+
+	@Override
+	public Iterator<TopList> getRangeIterator(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex);
+		return new DataIterator(startIndex, endIndex);
+	}
+
+	private void checkRange(int startIndex, int endIndex) {
+		if (startIndex < 0 || startIndex >= size || endIndex < startIndex || endIndex >= size)
+			throw new IllegalArgumentException("Indices out of range: [" + startIndex + ", " + endIndex + "], size: " + size);
+	}
+
+	private TopList topListAt(int t) {
+		return topListAt(t, null);
+	}
+
+	/**
+	 * Returns the top list added at time t, or the previous top list if it is equal to it (the one at t - 1).
+	 */
+	private TopList topListAt(int t, TopList previous) {
+		if (t < 0) {
+			return TopList.EMPTY;
+		}
+
+		int offset = (t % size) * width;
+		int length = lengths[t % size];
+		if (length == 0) {
+			return TopList.EMPTY;
+		}
+		if (previous != null && previous.size() == length
+				&& Arrays.equals(previous.uniqueIds, 0, length, uniqueIds, offset, offset + length)
+				&& Arrays.equals(previous.values, 0, length, values, offset, offset + length)) {
+			return previous;
+		}
+
+		TopList topList = new TopList(length);
+		System.arraycopy(uniqueIds, offset, topList.uniqueIds, 0, length);
+		System.arraycopy(values, offset, topList.values, 0, length);
+		return topList;
+	}
+
+	/**
+	 * Returns the name and id of a process in one of the top lists.
+	 */
+	public synchronized ProcessInfo processInfo(long uniqueId) {
+		return processes.getOrDefault(uniqueId, UNKNOWN_PROCESS);
+	}
+
+
+	private class DataIterator implements Iterator<TopList> {
+		private final int end;
+		private int index;
+		private TopList previous;
+
+		public DataIterator(int start, int end) {
+			this.end = end;
+			index = start;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index <= end;
+		}
+
+		@Override
+		public TopList next() {
+			if (!hasNext())
+				throw new IllegalStateException("The iterator is empty!");
+
+			synchronized (TopListMeasurementContainer.this) {
+				previous = topListAt(time - size + index, previous);
+			}
+			index += 1;
+			return previous;
+		}
+	}
+
+
+	public static class ProcessInfo {
+		public final String fileName;
+		public final long id;
+		private int lastSeen; // Only used by the owner of the table
+
+		private ProcessInfo(String fileName, long id, int lastSeen) {
+			this.fileName = fileName;
+			this.id = id;
+			this.lastSeen = lastSeen;
+		}
+	}
+}
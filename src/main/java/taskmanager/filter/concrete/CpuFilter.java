@@ -21,6 +21,6 @@ public class CpuFilter extends NumericalRangeFilter {
 
 	@Override
 	protected long valueToFilter(Process process) {
-		return process.cpuUsage.newest();
+		return process.cpuUsage.newestValue();
 	}
 }
\ No newline at end of file
@@ -21,6 +21,6 @@ public class MemoryFilter extends NumericalRangeFilter {
 
 	@Override
 	protected long valueToFilter(Process process) {
-		return process.privateWorkingSet.newest();
+		return process.privateWorkingSet.newestValue();
 	}
 }
\ No newline at end of file
@@ -24,6 +24,8 @@ public class LinuxExtraInformation implements ExtraInformation<LinuxExtraInforma
 	public long swapSize;
 	public long swapUsed;
 
+	public long stalledProcessReads; // Reads of process attributes that timed out since the start
+
 
 	@Override
 	public LinuxExtraInformation copy() {
@@ -43,5 +45,7 @@ public class LinuxExtraInformation implements ExtraInformation<LinuxExtraInforma
 
 		swapSize = other.swapSize;
 		swapUsed = other.swapUsed;
+
+		stalledProcessReads = other.stalledProcessReads;
 	}
 }
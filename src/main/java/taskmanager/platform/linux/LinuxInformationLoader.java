@@ -11,12 +11,15 @@
 
 package taskmanager.platform.linux;
 
+import config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import oshi.software.os.linux.LinuxOperatingSystem;
 import oshi.util.FileUtil;
 import oshi.util.UserGroupInfo;
 import taskmanager.InformationLoader;
+import taskmanager.ProcessIdSet;
+import taskmanager.Subsystem;
 import taskmanager.data.Process;
 import taskmanager.data.Status;
 import taskmanager.data.SystemInformation;
@@ -24,17 +27,58 @@ import taskmanager.platform.common.FileNameUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedHashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class LinuxInformationLoader extends InformationLoader {
 	private static final Logger LOGGER = LoggerFactory.getLogger(LinuxInformationLoader.class);
 
 	private static final String PROC_PATH = "/proc";
 
+	private static final int STATUS_BUFFER_SIZE = 16384;
+	// Fraction of one core that the skipped processes may use before all processes are read
+	private static final double UNACCOUNTED_CPU_THRESHOLD = 0.1;
+	// Threads that read attributes that may block, a thread that is blocked is replaced by a new one up to this limit
+	private static final int ATTRIBUTE_READER_THREADS = 8;
+	private static final int ATTRIBUTE_READER_KEEP_ALIVE = 30; // Seconds
+	private static final int MAX_BACKOFF_SHIFT = 8; // Processes with stalled reads are retried at least every 256 scans
+
+	private final ProcessStatParser statParser = new ProcessStatParser();
+	// The stat and status files are read every update so they are kept open, each may use a quarter of the fd limit
+	private final ProcFileCache statFiles = new ProcFileCache("stat", 0.25f);
+	private final ProcFileCache statusFiles = new ProcFileCache("status", 0.25f);
+	private final ByteBuffer statusBuffer = ByteBuffer.allocate(STATUS_BUFFER_SIZE);
+	private final ProcessIdSet processIds = new ProcessIdSet();
+	private final List<Process> skippedProcesses = new ArrayList<>();
+	private final Queue<AttributeRequest> pendingAttributes = new ArrayDeque<>();
+	private final List<AttributeRequest> retriedAttributes = new ArrayList<>();
+	private final ExecutorService attributeReaders = createAttributeReaders();
+	private final Map<Long, Future<SlowAttributes>> inFlightReads = new HashMap<>(); // Reads that have not finished
+	private long stalledReads;
+
+	private long scans;
+	private long previousSystemCpuTime;
+	private long previousCpuTimeCheck;
+
 	private long nextProcessId;
 
 	@Override
@@ -43,14 +87,9 @@ public class LinuxInformationLoader extends InformationLoader {
 
 		systemInformation.extraInformation = new LinuxExtraInformation();
 		systemInformation.physicalMemoryTotalInstalled = systemInformation.physicalMemoryTotal;
-	}
-
-	@Override
-	public void update(SystemInformation systemInformation) {
-		super.update(systemInformation);
 
-		updateMemory(systemInformation);
-		updateProcesses(systemInformation);
+		addStage("Memory composition", Subsystem.Memory, this::updateMemory);
+		addStage("Processes", Subsystem.Processes, this::updateProcesses, this::holdProcesses);
 	}
 
 	private void updateMemory(SystemInformation systemInformation) {
@@ -71,112 +110,350 @@ public class LinuxInformationLoader extends InformationLoader {
 		}
 	}
 
+	/**
+	 * Reads the processes. Processes that have been idle for a while are only read every few scans and repeat their
+	 * previous values in between, unless the CPU time of the whole system shows that some of them became active.
+	 */
 	private void updateProcesses(SystemInformation systemInformation) {
-		Set<Long> newProcessIds = fetchProcessIds();
-		createMissingProcessObjects(systemInformation, newProcessIds);
+		fetchProcessIds(processIds);
+		createMissingProcessObjects(systemInformation, processIds);
+
+		int idleThreshold = Config.getInt(Config.KEY_IDLE_PROCESS_THRESHOLD);
+		int idleSamplePeriod = Math.max(1, Config.getInt(Config.KEY_IDLE_PROCESS_SAMPLE_PERIOD));
+		long readCpuTime = 0;
+		skippedProcesses.clear();
+		for (int i = 0; i < processIds.size(); i++) {
+			long pid = processIds.get(i);
+			Process process = systemInformation.getProcessById(pid);
+			if (process.hasReadOnce && process.idleUpdates >= idleThreshold && (scans + pid) % idleSamplePeriod != 0) {
+				skippedProcesses.add(process);
+			} else {
+				updateProcess(systemInformation, process, pid);
+				readCpuTime += process.cpuTime.newestValue();
+			}
+		}
+
+		if (hasUnaccountedCpuTime(readCpuTime)) {
+			if (!skippedProcesses.isEmpty()) {
+				LOGGER.debug("CPU time not accounted for by the active processes, reading all {} idle processes", skippedProcesses.size());
+			}
+			for (Process process : skippedProcesses) {
+				updateProcess(systemInformation, process, process.id);
+			}
+		} else {
+			for (Process process : skippedProcesses) {
+				process.holdValues();
+				process.version = systemInformation.processesVersion;
+			}
+		}
+		scans++;
 
 		int totalThreadCount = 0;
-		for (Long pid : newProcessIds) {
-			Process process = systemInformation.getProcessById(pid);
-			try {
-				String processPath = PROC_PATH + "/" + pid;
-				Map<String, String> status = FileUtil.getKeyValueMapFromFile(processPath + "/status", ":");
-				if (status.isEmpty()) {
-					LOGGER.warn("Failed to read /proc/{}/status", process.id);
+		for (int i = 0; i < processIds.size(); i++) {
+			totalThreadCount += systemInformation.getProcessById(processIds.get(i)).threadCount;
+		}
+
+		// Remove old processes
+		updateDeadProcesses(systemInformation, processIds);
+
+		readNewProcessAttributes(systemInformation);
+
+		systemInformation.totalProcesses = processIds.size();
+		systemInformation.totalThreads = totalThreadCount;
+		((LinuxExtraInformation) systemInformation.extraInformation).stalledProcessReads = stalledReads;
+
+		String fileNr = FileUtil.getStringFromFile("/proc/sys/fs/file-nr");
+		if (fileNr.isEmpty()) {
+			LOGGER.warn("Failed to read /proc/sys/fs/file-nr!");
+		} else {
+			LinuxExtraInformation extraInformation = (LinuxExtraInformation) systemInformation.extraInformation;
+			extraInformation.openFileDescriptors = Long.parseLong(fileNr.split("\\s+")[0]);
+			extraInformation.openFileDescriptorsLimit = Long.parseLong(fileNr.split("\\s+")[2]);
+		}
+	}
+
+	private void updateProcess(SystemInformation systemInformation, Process process, long pid) {
+		try {
+			Map<String, String> status = readStatus(pid);
+			if (status.isEmpty()) {
+				LOGGER.warn("Failed to read /proc/{}/status", process.id);
+			}
+
+			statParser.read(statFiles, pid);
+
+			if (!process.hasReadOnce) {
+				if (!status.isEmpty()) {
+					// The rest of the attributes are slower to read, they are read later to keep the scan on time. Use
+					// the short name until then
+					String userId = status.getOrDefault("Uid", "-1").split("\\s+")[0];
+					String name = status.getOrDefault("Name", "");
+					process.fileName = name;
+					pendingAttributes.add(new AttributeRequest(process, userId, name));
+					process.hasReadOnce = true;
 				}
 
-				String[] stat = FileUtil.getStringFromFile(processPath + "/stat")
-						.replaceAll("\\(.*\\)", "(cmd)") // Take care of spaces in the process comm
-						.split("\\s+");
-
-				if (!process.hasReadOnce) {
-					if (!status.isEmpty()) {
-						String userId = status.getOrDefault("Uid", "-1").split("\\s+")[0];
-						process.userName = UserGroupInfo.getUser(userId);
-						process.commandLine = FileUtil.getStringFromFile(processPath + "/cmdline").replaceAll("" + (char) 0, " ").trim();
-
-						// Read process name and path
-						try {
-							File target = new File("/proc/" + process.id + "/exe");
-							if (target.exists()) {
-								Path absolutePath = Files.readSymbolicLink(target.toPath()).toAbsolutePath();
-								process.filePath = absolutePath.toString();
-								process.fileName = absolutePath.getFileName().toString();
-							}
-						} catch (IOException e) {
-							LOGGER.warn("Failed to read /proc/{}/exe", process.id, e);
-						}
-
-						// Fallback for file name/path
-						if (process.fileName.isEmpty()) {
-							String partialName = FileUtil.getStringFromFile(processPath + "/comm");
-							partialName = partialName.isEmpty() ? status.getOrDefault("Name", "") : partialName;
-							if (!FileNameUtil.setProcessPathAndNameFromCommandLine(process, partialName)) {
-								LOGGER.warn("Process {}: Found no partial name in /proc/{}/[comm, status, cmdline], did the process die too quickly?", process.id, process.id);
-							}
-						}
-						process.hasReadOnce = true;
-					}
+				if (statParser.fieldCount() > ProcessStatParser.FIELD_START_TIME) {
+					process.startTimestamp = systemInformation.bootTime + statParser.field(ProcessStatParser.FIELD_START_TIME) * 1000 / LinuxOperatingSystem.getHz();
+				}
 
-					if (stat.length > 21) {
-						process.startTimestamp = systemInformation.bootTime + Long.parseLong(stat[21]) * 1000 / LinuxOperatingSystem.getHz();
+				if (statParser.fieldCount() > ProcessStatParser.FIELD_PARENT_ID) {
+					long parentId = statParser.field(ProcessStatParser.FIELD_PARENT_ID);
+					Process parent = systemInformation.getProcessById(parentId);
+					if (parent != null) {
+						process.parentUniqueId = parent.uniqueId;
+						process.parentId = parentId;
+					} else {
+						process.parentUniqueId = -1;
+						process.parentId = -1;
 					}
+				}
 
-					if (stat.length > 3) {
-						long parentId = Long.parseLong(stat[3]);
-						Process parent = systemInformation.getProcessById(parentId);
-						if (parent != null) {
-							process.parentUniqueId = parent.uniqueId;
-							process.parentId = parentId;
-						} else {
-							process.parentUniqueId = -1;
-							process.parentId = -1;
-						}
-					}
+//			if (process.description.isEmpty())
+//				process.description = process.fileName;
+			}
 
-//				if (process.description.isEmpty())
-//					process.description = process.fileName;
-				}
+			long previousMemory = process.privateWorkingSet.newestValue();
+			process.privateWorkingSet.addValue(Long.parseLong(removeUnit(status.getOrDefault("RssAnon", "0 kb"))) * 1024);
+
+			if (statParser.fieldCount() <= ProcessStatParser.FIELD_THREAD_COUNT) {
+				LOGGER.warn("Failed to read /proc/{}/stat, duplicating previous CPU-values", process.id);
+				process.cpuTime.addValue(process.cpuTime.newestValue());
+				process.cpuUsage.addValue(process.cpuUsage.newestValue());
+			} else {
+				long utime = statParser.field(ProcessStatParser.FIELD_USER_TIME) * 1000 / LinuxOperatingSystem.getHz();
+				long stime = statParser.field(ProcessStatParser.FIELD_SYSTEM_TIME) * 1000 / LinuxOperatingSystem.getHz();
+				process.updateCpu(stime, utime, systemInformation.logicalProcessorCount);
 
-				process.privateWorkingSet.addValue(Long.parseLong(removeUnit(status.getOrDefault("RssAnon", "0 kb"))) * 1024);
+				process.status = parseStatus(statParser.state());
+
+				process.threadCount = (int) statParser.field(ProcessStatParser.FIELD_THREAD_COUNT);
+			}
 
-				if (stat.length < 20) {
-					LOGGER.warn("Failed to read /proc/{}/stat, duplicating previous CPU-values", process.id);
-					process.cpuTime.addValue(process.cpuTime.newest());
-					process.cpuUsage.addValue(process.cpuUsage.newest());
-				} else {
-					long utime = Long.parseLong(stat[13]) * 1000 / LinuxOperatingSystem.getHz();
-					long stime = Long.parseLong(stat[14]) * 1000 / LinuxOperatingSystem.getHz();
-					process.updateCpu(stime, utime, systemInformation.logicalProcessorCount);
+			if (process.cpuTime.newestValue() == 0 && process.privateWorkingSet.newestValue() == previousMemory) {
+				process.idleUpdates++;
+			} else {
+				process.idleUpdates = 0;
+			}
+		} catch (Throwable e) {
+			LOGGER.error("Exception when updating process '{}' ({})!", process.fileName, pid, e);
+			process.hasReadOnce = false; // Force full write at next update so that no data is missing
+			process.idleUpdates = 0;
+			// The full write queues the attributes again, drop the request that may be queued already
+			pendingAttributes.removeIf(request -> request.process == process);
+			retriedAttributes.removeIf(request -> request.process == process);
+		}
+		process.version = systemInformation.processesVersion;
+	}
+
+	/**
+	 * Reads the attributes of new processes that never change (the command line, path and user) until the time budget
+	 * is used up, the processes that are left are read after the next scan. The budget only covers these reads, not the
+	 * rest of the scan. At least one process is read every time so that the
+	 * queue always makes progress, and at most one read may time out per scan.
+	 */
+	private void readNewProcessAttributes(SystemInformation systemInformation) {
+		long deadline = System.nanoTime() + Config.getInt(Config.KEY_PROCESS_ATTRIBUTE_TIME_BUDGET) * 1_000_000L;
+		inFlightReads.values().removeIf(Future::isDone);
+
+		Iterator<AttributeRequest> itr = retriedAttributes.iterator();
+		while (itr.hasNext()) {
+			AttributeRequest request = itr.next();
+			if (request.retryScan <= scans) {
+				pendingAttributes.add(request);
+				itr.remove();
+			}
+		}
+
+		long timeout = Config.getInt(Config.KEY_PROCESS_READ_TIMEOUT);
+		boolean isFirst = true;
+		while (!pendingAttributes.isEmpty() && (isFirst || System.nanoTime() - deadline < 0)) {
+			AttributeRequest request = pendingAttributes.poll();
+			boolean isRead = readAttributes(request, timeout);
+			request.process.version = systemInformation.processesVersion;
+			isFirst = false;
+			if (!isRead) {
+				break;
+			}
+		}
 
-					process.status = parseStatus(stat[2]);
+		if (!pendingAttributes.isEmpty()) {
+			LOGGER.debug("Out of time for new processes, {} left until the next scan", pendingAttributes.size());
+		}
+	}
 
-					totalThreadCount += Integer.parseInt(stat[19]);
+	/**
+	 * Reads the attributes of a process on the reader pool since the reads may block (e.g. for processes that are
+	 * stuck on a hung network mount). Returns false if the read timed out, then the process is retried later.
+	 * <p>
+	 * A read that timed out can't be cancelled if the thread is blocked in the kernel, so it is kept and checked again
+	 * when the process is retried. No other read is started for the pid until it has finished.
+	 */
+	private boolean readAttributes(AttributeRequest request, long timeout) {
+		Process process = request.process;
+		process.userName = UserGroupInfo.getUser(request.userId);
+
+		// The pid may have been reused if the process died while it was in the queue
+		SlowAttributes attributes = null;
+		if (process.status != Status.Dead) {
+			try {
+				if (request.read == null) {
+					if (inFlightReads.containsKey(process.id)) {
+						// A read of a previous process with the same pid is still blocked
+						LOGGER.debug("Reading /proc/{}/[cmdline, exe] is still blocked, retrying in {} scans", process.id, retryLater(request));
+						return true;
+					}
+					request.read = attributeReaders.submit(() -> readSlowAttributes(process.id));
+					inFlightReads.put(process.id, request.read);
+				} else if (!request.read.isDone()) {
+					LOGGER.debug("Reading /proc/{}/[cmdline, exe] is still blocked, retrying in {} scans", process.id, retryLater(request));
+					return true;
 				}
-			} catch (Throwable e) {
-				LOGGER.error("Exception when updating process '{}' ({})!", process.fileName, pid, e);
-				process.hasReadOnce = false; // Force full write at next update so that no data is missing
+				attributes = request.read.get(timeout, TimeUnit.MILLISECONDS);
+				inFlightReads.remove(process.id, request.read);
+				request.read = null;
+			} catch (RejectedExecutionException | TimeoutException e) {
+				readStalled(request);
+				return false;
+			} catch (ExecutionException e) {
+				inFlightReads.remove(process.id, request.read);
+				request.read = null;
+				LOGGER.warn("Failed to read the attributes of process {}", process.id, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				pendingAttributes.add(request);
+				return false;
 			}
 		}
 
-		// Remove old processes
-		updateDeadProcesses(systemInformation, newProcessIds);
+		boolean hasPath = attributes != null && attributes.filePath != null;
+		String partialName = "";
+		if (attributes != null) {
+			process.commandLine = attributes.commandLine;
+			if (hasPath) {
+				process.filePath = attributes.filePath;
+				process.fileName = attributes.fileName;
+			} else {
+				partialName = attributes.shortName;
+			}
+		}
 
-		systemInformation.totalProcesses = newProcessIds.size();
-		systemInformation.totalThreads = totalThreadCount;
+		// Fallback for file name/path
+		if (!hasPath) {
+			partialName = partialName.isEmpty() ? request.name : partialName;
+			if (!FileNameUtil.setProcessPathAndNameFromCommandLine(process, partialName)) {
+				LOGGER.warn("Process {}: Found no partial name in /proc/{}/[comm, status, cmdline], did the process die too quickly?", process.id, process.id);
+			}
+		}
+		process.hasDegradedMetadata = false;
+		return true;
+	}
 
-		String fileNr = FileUtil.getStringFromFile("/proc/sys/fs/file-nr");
-		if (fileNr.isEmpty()) {
-			LOGGER.warn("Failed to read /proc/sys/fs/file-nr!");
-		} else {
-			LinuxExtraInformation extraInformation = (LinuxExtraInformation) systemInformation.extraInformation;
-			extraInformation.openFileDescriptors = Long.parseLong(fileNr.split("\\s+")[0]);
-			extraInformation.openFileDescriptorsLimit = Long.parseLong(fileNr.split("\\s+")[2]);
+	private void readStalled(AttributeRequest request) {
+		stalledReads++;
+		LOGGER.warn("Reading /proc/{}/[cmdline, exe] timed out, retrying in {} scans ({} stalled reads in total)", request.process.id, retryLater(request), stalledReads);
+	}
+
+	/**
+	 * Retries the request after an exponential backoff, returns the number of scans until the retry.
+	 */
+	private int retryLater(AttributeRequest request) {
+		request.process.hasDegradedMetadata = true;
+		request.retries++;
+		int backoff = 1 << Math.min(request.retries, MAX_BACKOFF_SHIFT);
+		request.retryScan = scans + backoff;
+		retriedAttributes.add(request);
+		return backoff;
+	}
+
+	/**
+	 * Reads the attributes that may block, runs on the reader pool.
+	 */
+	private static SlowAttributes readSlowAttributes(long pid) {
+		String processPath = PROC_PATH + "/" + pid;
+		SlowAttributes attributes = new SlowAttributes();
+		attributes.commandLine = FileUtil.getStringFromFile(processPath + "/cmdline").replaceAll("" + (char) 0, " ").trim();
+
+		// Read process name and path
+		try {
+			File target = new File(processPath + "/exe");
+			if (target.exists()) {
+				Path absolutePath = Files.readSymbolicLink(target.toPath()).toAbsolutePath();
+				attributes.filePath = absolutePath.toString();
+				attributes.fileName = absolutePath.getFileName().toString();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read /proc/{}/exe", pid, e);
+		}
+
+		if (attributes.filePath == null) {
+			attributes.shortName = FileUtil.getStringFromFile(processPath + "/comm");
+		}
+		return attributes;
+	}
+
+	/**
+	 * Returns true if the system has used noticeably more CPU time since the last call than the processes that were
+	 * read, which means that some of the processes that were skipped are active. Always true for the first call.
+	 */
+	private boolean hasUnaccountedCpuTime(long readCpuTime) {
+		long now = System.nanoTime();
+		String[] cpu = FileUtil.getStringFromFile(PROC_PATH + "/stat").split("\\s+");
+		if (cpu.length < 4 || !cpu[0].equals("cpu")) {
+			LOGGER.warn("Failed to read /proc/stat!");
+			previousCpuTimeCheck = 0;
+			return true;
+		}
+
+		// User, nice and system time, the same times that are included in the CPU time of the processes
+		long systemCpuTime = (Long.parseLong(cpu[1]) + Long.parseLong(cpu[2]) + Long.parseLong(cpu[3])) * 1000 / LinuxOperatingSystem.getHz();
+		boolean isFirstCheck = previousCpuTimeCheck == 0;
+		long unaccountedCpuTime = systemCpuTime - previousSystemCpuTime - readCpuTime;
+		long elapsedTime = (now - previousCpuTimeCheck) / 1_000_000;
+		previousSystemCpuTime = systemCpuTime;
+		previousCpuTimeCheck = now;
+		return isFirstCheck || unaccountedCpuTime > elapsedTime * UNACCOUNTED_CPU_THRESHOLD;
+	}
+
+	/**
+	 * Reads are handed directly to a thread without a queue, so a read never waits behind a blocked one. Idle threads
+	 * are reused and new threads are started while the others are busy (or blocked), when all threads are blocked the
+	 * reads are rejected until one of them finishes.
+	 */
+	private static ExecutorService createAttributeReaders() {
+		return new ThreadPoolExecutor(0, ATTRIBUTE_READER_THREADS, ATTRIBUTE_READER_KEEP_ALIVE, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), r -> {
+			Thread thread = new Thread(r, "Process attribute reader");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	protected void processDied(Process process) {
+		statFiles.close(process.id);
+		statusFiles.close(process.id);
+	}
+
+	/**
+	 * Reads /proc/[pid]/status into a map in the same way as {@link FileUtil#getKeyValueMapFromFile(String, String)}.
+	 */
+	private Map<String, String> readStatus(long pid) {
+		Map<String, String> status = new HashMap<>();
+		if (statusFiles.read(pid, statusBuffer)) {
+			String content = new String(statusBuffer.array(), 0, statusBuffer.limit(), StandardCharsets.UTF_8);
+			for (String line : content.split("\n")) {
+				String[] parts = line.split(":", 2);
+				if (parts.length == 2) {
+					status.put(parts[0], parts[1].trim());
+				}
+			}
 		}
+		return status;
 	}
 
-	private void createMissingProcessObjects(SystemInformation systemInformation, Set<Long> newProcessIds) {
-		for (Long pid : newProcessIds) {
+	private void createMissingProcessObjects(SystemInformation systemInformation, ProcessIdSet newProcessIds) {
+		for (int i = 0; i < newProcessIds.size(); i++) {
+			long pid = newProcessIds.get(i);
 			Process process = systemInformation.getProcessById(pid);
 			if (process == null) {
 				systemInformation.processes.add(new Process(nextProcessId++, pid));
@@ -184,16 +461,40 @@ public class LinuxInformationLoader extends InformationLoader {
 		}
 	}
 
-	private Set<Long> fetchProcessIds() {
-		Set<Long> processIds = new LinkedHashSet<>();
-		File processDir = new File(PROC_PATH);
-		File[] files = processDir.listFiles(f -> f.isDirectory() && f.getName().matches("[0-9]+"));
-		if (files != null) {
-			for (File file : files) {
-				processIds.add(Long.parseLong(file.getName()));
+	/**
+	 * Lists the process directories in /proc. Only the names are checked, all the entries that are numbers are
+	 * directories so no stat calls are needed.
+	 */
+	private void fetchProcessIds(ProcessIdSet processIds) {
+		processIds.clear();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Path.of(PROC_PATH))) {
+			for (Path path : stream) {
+				long pid = parseProcessId(path.getFileName().toString());
+				if (pid >= 0) {
+					processIds.add(pid);
+				}
 			}
+		} catch (IOException | DirectoryIteratorException e) {
+			LOGGER.error("Failed to list the processes in /proc", e);
 		}
-		return processIds;
+	}
+
+	/**
+	 * Returns the name as a number, or -1 if it is not only digits.
+	 */
+	private static long parseProcessId(String name) {
+		if (name.isEmpty() || name.length() > 9) { // Linux limits pids to 2^22
+			return -1;
+		}
+		long pid = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			pid = pid * 10 + (c - '0');
+		}
+		return pid;
 	}
 
 	private String removeUnit(String value) {
@@ -203,18 +504,41 @@ public class LinuxInformationLoader extends InformationLoader {
 		return value.substring(0, value.length() - 3);
 	}
 
-	private Status parseStatus(String token) {
-		switch (token.toUpperCase()) {
-			case "D":
+	private Status parseStatus(char state) {
+		switch (Character.toUpperCase(state)) {
+			case 'D':
 				return Status.Waiting;
-			case "Z":
+			case 'Z':
 				return Status.Zombie;
-			case "T":
+			case 'T':
 				return Status.Suspended;
-			case "X":
+			case 'X':
 				return Status.Dead;
 			default:
 				return Status.Running;
 		}
 	}
-}
\ No newline at end of file
+
+
+	private static class AttributeRequest {
+		final Process process;
+		final String userId;
+		final String name;
+		int retries;
+		long retryScan;
+		Future<SlowAttributes> read; // Set while the read is in flight
+
+		AttributeRequest(Process process, String userId, String name) {
+			this.process = process;
+			this.userId = userId;
+			this.name = name;
+		}
+	}
+
+	private static class SlowAttributes {
+		String commandLine;
+		String filePath; // Null if the exe link could not be read
+		String fileName;
+		String shortName = "";
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager.platform.linux;
+
+import com.sun.jna.platform.unix.LibC;
+import com.sun.jna.platform.unix.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps one file in /proc/[pid] open for each process so it can be re-read from the start with positional reads
+ * instead of being opened and closed every update. The number of open files is limited, when the limit is reached the
+ * least recently read file is closed. Not thread safe.
+ */
+public class ProcFileCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProcFileCache.class);
+
+	private static final int DEFAULT_OPEN_FILES_LIMIT = 1024;
+	private static final int MAX_OPEN_FILES_LIMIT = 65536;
+
+	private final String fileName;
+	private final int maxOpenFiles;
+	private final LinkedHashMap<Long, FileChannel> channels;
+
+	/**
+	 * Creates a cache that may use the given fraction of the open files limit of the application (RLIMIT_NOFILE).
+	 */
+	public ProcFileCache(String fileName, float fractionOfLimit) {
+		this.fileName = fileName;
+		this.maxOpenFiles = Math.max(1, (int) (openFilesLimit() * fractionOfLimit));
+		channels = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, FileChannel> eldest) {
+				if (size() > maxOpenFiles) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Reads the whole file of the process into the buffer, which is cleared first and flipped afterwards. Returns false
+	 * if the file could not be read (e.g. if the process died).
+	 */
+	public boolean read(long pid, ByteBuffer buffer) {
+		FileChannel channel = channels.get(pid);
+		if (channel != null) {
+			if (read(channel, buffer)) {
+				return true;
+			}
+			// The file belongs to a process that died, the pid may have been reused so try again with a new file
+			close(pid);
+		}
+
+		try {
+			channel = FileChannel.open(Path.of("/proc", Long.toString(pid), fileName), StandardOpenOption.READ);
+		} catch (IOException e) {
+			buffer.clear().flip();
+			return false;
+		}
+		if (!read(channel, buffer)) {
+			closeQuietly(channel);
+			return false;
+		}
+		channels.put(pid, channel);
+		return true;
+	}
+
+	private static boolean read(FileChannel channel, ByteBuffer buffer) {
+		buffer.clear();
+		try {
+			long position = 0;
+			int count;
+			while (buffer.hasRemaining() && (count = channel.read(buffer, position)) > 0) {
+				position += count;
+			}
+			buffer.flip();
+			return position > 0;
+		} catch (IOException e) {
+			buffer.clear().flip();
+			return false;
+		}
+	}
+
+	/**
+	 * Closes the file of the process, if it is open.
+	 */
+	public void close(long pid) {
+		FileChannel channel = channels.remove(pid);
+		if (channel != null) {
+			closeQuietly(channel);
+		}
+	}
+
+	public int openFiles() {
+		return channels.size();
+	}
+
+	public int maxOpenFiles() {
+		return maxOpenFiles;
+	}
+
+	private static void closeQuietly(FileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			LOGGER.debug("Failed to close file in /proc", e);
+		}
+	}
+
+	private static long openFilesLimit() {
+		try {
+			Resource.Rlimit limit = new Resource.Rlimit();
+			if (LibC.INSTANCE.getrlimit(Resource.RLIMIT_NOFILE, limit) == 0) {
+				// RLIM_INFINITY is all bits set, which is negative as a long
+				return limit.rlim_cur < 0 ? MAX_OPEN_FILES_LIMIT : Math.min(limit.rlim_cur, MAX_OPEN_FILES_LIMIT);
+			}
+			LOGGER.warn("Failed to read the open files limit, assuming {}", DEFAULT_OPEN_FILES_LIMIT);
+		} catch (Throwable e) {
+			LOGGER.warn("Failed to read the open files limit, assuming {}", DEFAULT_OPEN_FILES_LIMIT, e);
+		}
+		return DEFAULT_OPEN_FILES_LIMIT;
+	}
+}
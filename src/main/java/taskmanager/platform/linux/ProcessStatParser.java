@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager.platform.linux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parser for /proc/[pid]/stat. The file is read into a reused direct buffer and the numeric fields are parsed in
+ * place, so no strings or arrays are created for each process. Field indices are the same as in proc(5) minus one,
+ * i.e. the pid is field 0. Not thread safe.
+ */
+public class ProcessStatParser {
+	public static final int FIELD_STATE = 2;
+	public static final int FIELD_PARENT_ID = 3;
+	public static final int FIELD_USER_TIME = 13;
+	public static final int FIELD_SYSTEM_TIME = 14;
+	public static final int FIELD_THREAD_COUNT = 19;
+	public static final int FIELD_START_TIME = 21;
+
+	private static final int BUFFER_SIZE = 4096; // Larger than the file, the name is at most 16 characters
+
+	private final ByteBuffer buffer;
+	private final long[] fields;
+	private int fieldCount;
+	private char state;
+
+	public ProcessStatParser() {
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		fields = new long[FIELD_START_TIME + 1];
+	}
+
+	/**
+	 * Reads and parses the file, returns false if it could not be read (e.g. if the process died).
+	 */
+	public boolean read(Path path) {
+		buffer.clear();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+				// Keep reading until the end of the file
+			}
+		} catch (IOException e) {
+			fieldCount = 0;
+			return false;
+		}
+		buffer.flip();
+		return parse();
+	}
+
+	/**
+	 * Reads and parses the file through a cache of open files, returns false if it could not be read.
+	 */
+	public boolean read(ProcFileCache files, long pid) {
+		if (!files.read(pid, buffer)) {
+			fieldCount = 0;
+			return false;
+		}
+		return parse();
+	}
+
+	/**
+	 * Parses the content of the buffer. The name of the process (field 1) may contain any character including spaces
+	 * and parentheses, so the fields after it are found from the last ')'.
+	 */
+	private boolean parse() {
+		fieldCount = 0;
+		int end = buffer.limit();
+		int position = end - 1;
+		while (position >= 0 && buffer.get(position) != ')') {
+			position--;
+		}
+		if (position < 0) {
+			return false;
+		}
+
+		position++;
+		fieldCount = FIELD_STATE;
+		while (fieldCount < fields.length) {
+			while (position < end && isWhitespace(buffer.get(position))) {
+				position++;
+			}
+			if (position >= end) {
+				break;
+			}
+
+			if (fieldCount == FIELD_STATE) {
+				state = (char) buffer.get(position);
+			} else {
+				boolean isNegative = buffer.get(position) == '-';
+				long value = 0;
+				for (int i = isNegative ? position + 1 : position; i < end; i++) {
+					byte b = buffer.get(i);
+					if (b < '0' || b > '9') {
+						break;
+					}
+					value = value * 10 + (b - '0');
+				}
+				fields[fieldCount] = isNegative ? -value : value;
+			}
+
+			while (position < end && !isWhitespace(buffer.get(position))) {
+				position++;
+			}
+			fieldCount++;
+		}
+		return true;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\t';
+	}
+
+	/**
+	 * Returns the number of fields that were parsed, capped at {@link #FIELD_START_TIME} + 1.
+	 */
+	public int fieldCount() {
+		return fieldCount;
+	}
+
+	public char state() {
+		return state;
+	}
+
+	public long field(int index) {
+		return fields[index];
+	}
+}
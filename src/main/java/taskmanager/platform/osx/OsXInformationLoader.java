@@ -25,6 +25,8 @@ import oshi.jna.platform.mac.SystemB.ProcFdInfo;
 import oshi.util.Constants;
 import oshi.util.ExecutingCommand;
 import taskmanager.InformationLoader;
+import taskmanager.ProcessIdSet;
+import taskmanager.Subsystem;
 import taskmanager.data.Process;
 import taskmanager.data.Status;
 import taskmanager.data.SystemInformation;
@@ -46,6 +48,7 @@ public class OsXInformationLoader extends InformationLoader {
 	private final Cache cache = new Cache();
 
 	private final Set<Long> processesWithFailedKInfoProc = new LinkedHashSet<>();
+	private final ProcessIdSet processIds = new ProcessIdSet();
 
 	private int maximumProgramArgumentsSize;
 
@@ -59,6 +62,9 @@ public class OsXInformationLoader extends InformationLoader {
 		systemInformation.physicalMemoryTotalInstalled = systemInformation.physicalMemoryTotal;
 
 		readMaximumProgramArguments();
+
+		// A single stage since all of these share the cache, so the memory composition is sampled with the processes
+		addStage("Processes", Subsystem.Processes, this::updatePlatformInformation, this::holdProcesses);
 	}
 
 	private void readMaximumProgramArguments() {
@@ -73,10 +79,7 @@ public class OsXInformationLoader extends InformationLoader {
 		}
 	}
 
-	@Override
-	public void update(SystemInformation systemInformation) {
-		super.update(systemInformation);
-
+	private void updatePlatformInformation(SystemInformation systemInformation) {
 		updateMemory(systemInformation);
 		updateProcesses(systemInformation);
 		updateMaxOpenFiles(systemInformation);
@@ -131,10 +134,10 @@ public class OsXInformationLoader extends InformationLoader {
 
 		int totalThreadCount = 0;
 		int totalFileDescriptorsCount = 0;
-		Set<Long> newProcessIds = new LinkedHashSet<>();
+		processIds.clear();
 		for (int i = 0; i < totalProcessesCount; i++) {
 			long pid = cache.pidFetchArray[i];
-			newProcessIds.add(pid);
+			processIds.add(pid);
 			Process process = systemInformation.getProcessById(pid);
 
 			ProcTaskAllInfo taskAllInfo = cache.procTaskAllInfo;
@@ -209,11 +212,12 @@ public class OsXInformationLoader extends InformationLoader {
 					LOGGER.warn("Unknown status {} for process {}", processStatus, pid);
 					break;
 			}
+			process.version = systemInformation.processesVersion;
 		}
 
-		updateDeadProcesses(systemInformation, newProcessIds);
+		updateDeadProcesses(systemInformation, processIds);
 
-		systemInformation.totalProcesses = newProcessIds.size();
+		systemInformation.totalProcesses = processIds.size();
 		systemInformation.totalThreads = totalThreadCount; // Currently only includes the threads of the current user (unless root?)
 
 		OsXExtraInformation extraInformation = (OsXExtraInformation) systemInformation.extraInformation;
@@ -35,6 +35,8 @@ import com.sun.jna.ptr.PointerByReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import taskmanager.InformationLoader;
+import taskmanager.ProcessIdSet;
+import taskmanager.Subsystem;
 import taskmanager.data.Process;
 import taskmanager.data.Status;
 import taskmanager.data.SystemInformation;
@@ -54,9 +56,7 @@ import taskmanager.platform.win32.dll.VersionExt.LANGANDCODEPAGE;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 import static taskmanager.platform.win32.dll.NtDllExt.THREAD_STATE_WAITING;
 import static taskmanager.platform.win32.dll.NtDllExt.WAIT_REASON_SUSPENDED;
@@ -67,6 +67,8 @@ public class WindowsInformationLoader extends InformationLoader {
 	private long lastCpuTime;
 	private long currentCpuTime;
 
+	private final ProcessIdSet processIds = new ProcessIdSet();
+
 	private long nextProcessId;
 
 	@Override
@@ -80,6 +82,9 @@ public class WindowsInformationLoader extends InformationLoader {
 		setUsername(systemInformation);
 
 		enableSeDebugNamePrivilege();
+
+		addStage("Processes", Subsystem.Processes, this::updateProcessesAndPerformance, this::holdProcesses);
+		addStage("Memory composition", Subsystem.Memory, this::updateMemory);
 	}
 
 	private long readPhysicalMemory() {
@@ -119,9 +124,7 @@ public class WindowsInformationLoader extends InformationLoader {
 	}
 
 
-	@Override
-	public void update(SystemInformation systemInformation) {
-		super.update(systemInformation);
+	private void updateProcessesAndPerformance(SystemInformation systemInformation) {
 		WindowsExtraInformation extraInformation = (WindowsExtraInformation) systemInformation.extraInformation;
 
 		updateTotalCpuTime();
@@ -137,6 +140,10 @@ public class WindowsInformationLoader extends InformationLoader {
 
 		extraInformation.kernelPaged = performanceInfo.KernelPaged.longValue() * systemInformation.pageSize;
 		extraInformation.kernelNonPaged = performanceInfo.KernelNonpaged.longValue() * systemInformation.pageSize;
+	}
+
+	private void updateMemory(SystemInformation systemInformation) {
+		WindowsExtraInformation extraInformation = (WindowsExtraInformation) systemInformation.extraInformation;
 
 		try (Memory memory = new Memory(new SYSTEM_MEMORY_LIST_INFORMATION().size())) {
 			int status = NtDllExt.INSTANCE.NtQuerySystemInformation(
@@ -165,16 +172,15 @@ public class WindowsInformationLoader extends InformationLoader {
 
 	private void updateProcesses(SystemInformation systemInformation) {
 		List<ProcessInfo> newProcesses = fetchProcessList();
-		Set<Long> newProcessIds = new LinkedHashSet<>();
-
 		if (newProcesses.isEmpty()) {
 			return;
 		}
 
 		createMissingProcessObjects(systemInformation, newProcesses);
 
+		processIds.clear();
 		for (ProcessInfo newProcess : newProcesses) {
-			newProcessIds.add(newProcess.process.uniqueProcessId);
+			processIds.add(newProcess.process.uniqueProcessId);
 			Process process = systemInformation.getProcessById(newProcess.process.uniqueProcessId);
 
 			try {
@@ -227,9 +233,10 @@ public class WindowsInformationLoader extends InformationLoader {
 				LOGGER.error("Exception when updating process '{}' ({})!", process.fileName, process.id, e);
 				process.hasReadOnce = false; // Force full write at next update so that no data is missing
 			}
+			process.version = systemInformation.processesVersion;
 		}
 
-		updateDeadProcesses(systemInformation, newProcessIds);
+		updateDeadProcesses(systemInformation, processIds);
 	}
 
 	private void createMissingProcessObjects(SystemInformation systemInformation, List<ProcessInfo> newProcesses) {
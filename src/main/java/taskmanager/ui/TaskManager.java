@@ -17,12 +17,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import taskmanager.DataCollector;
 import taskmanager.InformationUpdateCallback;
+import taskmanager.StageStatistics;
 import taskmanager.data.Process;
 import taskmanager.data.Status;
 import taskmanager.data.SystemInformation;
 import taskmanager.ui.callbacks.ApplicationCallback;
 import taskmanager.ui.callbacks.ProcessDetailsCallback;
 import taskmanager.ui.callbacks.ShowProcessCallback;
+import taskmanager.ui.debug.DebugPanel;
 import taskmanager.ui.details.ProcessPanel;
 import taskmanager.ui.menubar.MenuBar;
 import taskmanager.ui.performance.PerformancePanel;
@@ -48,12 +50,13 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TaskManager extends JFrame implements InformationUpdateCallback, ProcessDetailsCallback, ApplicationCallback, ShowProcessCallback {
 	private static final Logger LOGGER = LoggerFactory.getLogger(TaskManager.class);
@@ -70,6 +73,12 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 	private JTabbedPane tabbedPane;
 	private ProcessPanel processPanel;
 	private PerformancePanel performancePanel;
+	private DebugPanel debugPanel;
+
+	private final AtomicBoolean isUpdatePending = new AtomicBoolean();
+	private final AtomicLong numDroppedFrames = new AtomicLong();
+	private final StageStatistics uiCopyStatistics = StageStatistics.of("UI copy");
+	private final StageStatistics uiUpdateStatistics = StageStatistics.of("UI update");
 
 	private Map<Long, ProcessDialog> processDialogs;
 	private Map<Long, ProcessDialog> deadProcessDialogs;
@@ -111,6 +120,7 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 		SystemInformation systemInformationNew = dataCollector.init();
 
 		copyData(systemInformationNew);
+		dataCollector.snapshotShown();
 
 		initSystemTray();
 
@@ -122,6 +132,10 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 		tabbedPane = new JTabbedPane();
 		tabbedPane.addTab("Processes", processPanel);
 		tabbedPane.addTab("Performance", performancePanel);
+		if (StageStatistics.isEnabled()) {
+			debugPanel = new DebugPanel();
+			tabbedPane.addTab("Debug", debugPanel);
+		}
 
 		tabbedPane.setSelectedIndex(Config.getInt(Config.KEY_LAST_TAB, 0));
 		tabbedPane.addChangeListener(e -> Config.put(Config.KEY_LAST_TAB, String.valueOf(tabbedPane.getSelectedIndex())));
@@ -139,11 +153,19 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 
 		if (!shouldMinimizeToTray(getExtendedState())) {
 			setVisible(true);
+		} else {
+			dataCollector.setInBackground(true);
 		}
 
 		dataCollector.start();
 	}
 
+	/**
+	 * Copies a snapshot into the UI model. The snapshots rotate between the collector and the UI, while the panels,
+	 * graphs and process dialogs are bound to the measurements and processes of the UI model when they are created,
+	 * so the UI model can't be replaced by the snapshot. The copy shares the measurement history with the snapshot and
+	 * skips the processes that did not change, and it is included in the publish latency.
+	 */
 	private void copyData(SystemInformation other) {
 		systemInformation.copyFrom(other);
 		systemInformation.processes.sort(comparator);
@@ -183,41 +205,55 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 	}
 
 	@Override
-	public void update(SystemInformation systemInformationNew) {
-		SwingUtilities.invokeLater(() -> {
-			dataCollector.lockTransfer();
-			copyData(systemInformationNew);
-			dataCollector.unlockTransfer();
-
-			processPanel.update();
-			performancePanel.update(systemInformation);
+	public void update() {
+		// Only keep one update queued, if the UI falls behind it skips to the newest snapshot when it catches up
+		if (isUpdatePending.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> {
+				isUpdatePending.set(false);
+				uiUpdateStatistics.measure(this::updateUi);
+			});
+		} else {
+			numDroppedFrames.incrementAndGet();
+		}
+	}
 
-			Set<Long> openProcessIds = new HashSet<>();
-			for (Process process : systemInformation.processes) {
-				if (processDialogs.containsKey(process.uniqueId)) {
-					openProcessIds.add(process.uniqueId);
-				}
+	private void updateUi() {
+		if (!isVisible()) {
+			// Minimized to the tray, the tray reads the snapshot directly and the UI model is updated when it is shown
+			if (trayIcon != null) {
+				trayIcon.update(dataCollector.takeSnapshot());
 			}
+			dataCollector.snapshotShown();
+			return;
+		}
 
-			Iterator<Entry<Long, ProcessDialog>> itr = processDialogs.entrySet().iterator();
-			while (itr.hasNext()) {
-				Entry<Long, ProcessDialog> entry = itr.next();
-				ProcessDialog dialog = entry.getValue();
-				if (!openProcessIds.contains(entry.getKey())) {
-					itr.remove();
-					dialog.processEnded();
-					deadProcessDialogs.put(entry.getKey(), dialog);
-				}
-			}
+		uiCopyStatistics.measure(() -> copyData(dataCollector.takeSnapshot()));
+		dataCollector.snapshotShown();
 
-			processDialogs.forEach((id, d) -> d.update());
-			processDialogs.entrySet().removeIf(e -> !e.getValue().isVisible());
-			deadProcessDialogs.entrySet().removeIf(e -> !e.getValue().isVisible());
+		processPanel.update();
+		performancePanel.update(systemInformation);
 
-			if (trayIcon != null) {
-				trayIcon.update(systemInformation);
+		Iterator<Entry<Long, ProcessDialog>> itr = processDialogs.entrySet().iterator();
+		while (itr.hasNext()) {
+			Entry<Long, ProcessDialog> entry = itr.next();
+			ProcessDialog dialog = entry.getValue();
+			if (systemInformation.getProcessByUniqueId(entry.getKey()) == null) {
+				itr.remove();
+				dialog.processEnded();
+				deadProcessDialogs.put(entry.getKey(), dialog);
 			}
-		});
+		}
+
+		processDialogs.forEach((id, d) -> d.update());
+		processDialogs.entrySet().removeIf(e -> !e.getValue().isVisible());
+		deadProcessDialogs.entrySet().removeIf(e -> !e.getValue().isVisible());
+
+		if (trayIcon != null) {
+			trayIcon.update(systemInformation);
+		}
+		if (debugPanel != null) {
+			debugPanel.update(numDroppedFrames.get());
+		}
 	}
 
 	@Override
@@ -246,6 +282,7 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 		synchronized (this) {
 			hasTerminated = true;
 		}
+		LOGGER.info("UI updates skipped since the UI fell behind: {}", numDroppedFrames.get());
 		dispose();
 		if (trayIcon != null) {
 			trayIcon.dispose();
@@ -330,6 +367,16 @@ public class TaskManager extends JFrame implements InformationUpdateCallback, Pr
 	};
 
 	private final ComponentAdapter componentListener = new ComponentAdapter() {
+		@Override
+		public void componentShown(ComponentEvent e) {
+			dataCollector.setInBackground(false);
+		}
+
+		@Override
+		public void componentHidden(ComponentEvent e) {
+			dataCollector.setInBackground(true);
+		}
+
 		@Override
 		public void componentResized(ComponentEvent e) {
 			if (isVisible()) {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020. Sebastian Hjelm
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * See LICENSE for further details.
+ */
+
+package taskmanager.ui.debug;
+
+import net.miginfocom.swing.MigLayout;
+import taskmanager.StageStatistics;
+import taskmanager.ui.TextUtils;
+import taskmanager.ui.TextUtils.ValueType;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows where the time of each data collection tick goes, only available in debug mode.
+ */
+public class DebugPanel extends JPanel {
+	private static final String[] COLUMNS = {"Stage", "Runs", "Mean", "p50", "p90", "p99", "p99.9", "Max", "Allocated/run"};
+
+	private final StageTableModel model;
+	private final JLabel droppedFramesLabel;
+
+	public DebugPanel() {
+		model = new StageTableModel();
+		JTable table = new JTable(model);
+		table.setFillsViewportHeight(true);
+		droppedFramesLabel = new JLabel();
+
+		setLayout(new MigLayout("fill, wrap 1"));
+		add(new JScrollPane(table), "grow");
+		add(droppedFramesLabel);
+	}
+
+	public void update(long droppedFrames) {
+		if (isShowing()) {
+			model.update();
+			droppedFramesLabel.setText("UI updates skipped since the UI fell behind: " + droppedFrames);
+		}
+	}
+
+	private static String nanosToString(long nanos) {
+		return String.format("%.2f ms", nanos / 1_000_000.0);
+	}
+
+
+	private static class StageTableModel extends AbstractTableModel {
+		private final List<String[]> rows = new ArrayList<>();
+
+		void update() {
+			rows.clear();
+			for (StageStatistics stage : StageStatistics.all()) {
+				rows.add(new String[] {
+						stage.name,
+						Long.toString(stage.runs()),
+						nanosToString(stage.meanNanos()),
+						nanosToString(stage.percentileNanos(50)),
+						nanosToString(stage.percentileNanos(90)),
+						nanosToString(stage.percentileNanos(99)),
+						nanosToString(stage.percentileNanos(99.9)),
+						nanosToString(stage.maxNanos()),
+						StageStatistics.isAllocationTrackingSupported() ? TextUtils.valueToString(stage.allocatedBytesPerRun(), ValueType.Bytes) : "---"
+				});
+			}
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount() {
+			return rows.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public Object getValueAt(int rowIndex, int columnIndex) {
+			return rows.get(rowIndex)[columnIndex];
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public boolean isCellEditable(int rowIndex, int columnIndex) {
+			return false;
+		}
+	}
+}
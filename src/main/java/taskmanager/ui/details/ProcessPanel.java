@@ -13,7 +13,6 @@ package taskmanager.ui.details;
 
 import config.Config;
 import net.miginfocom.swing.MigLayout;
-import taskmanager.data.Process;
 import taskmanager.data.SystemInformation;
 import taskmanager.ui.callbacks.ProcessDetailsCallback;
 import taskmanager.ui.details.filter.FilterAttributeComboBox;
@@ -24,7 +23,6 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import java.awt.GridLayout;
-import java.util.List;
 
 public class ProcessPanel extends JPanel {
 	private final SystemInformation systemInformation;
@@ -89,18 +87,14 @@ public class ProcessPanel extends JPanel {
 	}
 
 	public void showProcess(long uniqueId) {
-		if (isProcessInList(systemInformation.processes, uniqueId)) {
+		if (systemInformation.getProcessByUniqueId(uniqueId) != null) {
 			showProcess(liveTable, uniqueId);
-		} else if (isProcessInList(systemInformation.deadProcesses, uniqueId) &&
+		} else if (systemInformation.getDeadProcessByUniqueId(uniqueId) != null &&
 				Config.getBoolean(Config.KEY_SHOW_DEAD_PROCESSES)) {
 			showProcess(deadTable, uniqueId);
 		}
 	}
 
-	private boolean isProcessInList(List<Process> processes, long uniqueId) {
-		return processes.stream().anyMatch(p -> p.uniqueId == uniqueId);
-	}
-
 	private void showProcess(ProcessTable targetTable, long uniqueId) {
 		if (!targetTable.showProcess(uniqueId)) {
 			filterPanel.clearFilter();
@@ -12,8 +12,11 @@
 package taskmanager.ui.performance;
 
 import config.Config;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
+import taskmanager.Subsystem;
 import taskmanager.data.TopList;
+import taskmanager.data.TopListMeasurementContainer;
+import taskmanager.data.TopListMeasurementContainer.ProcessInfo;
 import taskmanager.ui.ColorUtils;
 import taskmanager.ui.TextUtils;
 import taskmanager.ui.TextUtils.ValueType;
@@ -31,12 +34,12 @@ import java.awt.Stroke;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 public class GraphPanel extends JPanel {
 	private final List<Graph> graphs;
 	private long measurementMaximumValue;
+	private long[] averages; // Reused between paints
 
 	protected int dataStartIndex;
 	protected int dataEndIndex;
@@ -57,6 +60,7 @@ public class GraphPanel extends JPanel {
 		this.graphs = new ArrayList<>();
 		this.renderValueMarker = renderValueMarker;
 		isLogarithmic = false;
+		averages = new long[0];
 
 		setBackground(Color.WHITE);
 		setSelected(false);
@@ -80,7 +84,7 @@ public class GraphPanel extends JPanel {
 
 	public void addGraph(Graph graph) {
 		graphs.add(graph);
-		setDataIndexInterval((int) (graph.measurements.size() - 1 - 60 * Config.getFloat(Config.KEY_UPDATE_RATE)), graph.measurements.size() - 1);
+		setDataIndexInterval((int) (graph.length - 1 - 60 * Subsystem.tickRate()), graph.length - 1);
 	}
 
 	public void setSelected(boolean selected) {
@@ -186,12 +190,17 @@ public class GraphPanel extends JPanel {
 		Stroke oldStroke = g2d.getStroke();
 		g2d.setStroke(graph.style.createStroke(1.5f));
 
-		MeasurementAverager<Long> itr = graph.measurementAverager;
+		MeasurementAveragerForLong itr = graph.measurementAverager;
 		itr.reset();
-		long previous = itr.next();
+		if (averages.length < itr.numPoints() + 1) {
+			averages = new long[itr.numPoints() + 1];
+		}
+		int count = itr.next(averages);
+
+		long previous = averages[0];
 		int idx = 0;
-		while (itr.hasNext()) {
-			long current = itr.next();
+		for (int i = 1; i < count; i++) {
+			long current = averages[i];
 
 			int yPrev = (int) (getHeight() * Math.min(1, computeHeightFraction(previous, measurementMaximumValue)));
 			int yCurr = (int) (getHeight() * Math.min(1, computeHeightFraction(current, measurementMaximumValue)));
@@ -232,13 +241,18 @@ public class GraphPanel extends JPanel {
 			float indexAtMouse = x / (float) getWidth() * graph.measurementAverager.numPoints();
 			float factor = indexAtMouse % 1;
 
-			MeasurementAverager<Long> itr = graph.measurementAverager;
+			MeasurementAveragerForLong itr = graph.measurementAverager;
 			itr.reset((int) indexAtMouse);
 
-			long leftValue = itr.next();
+			long[] values = new long[2];
+			long leftValue = 0;
 			long rightValue = 0;
-			if (itr.hasNext()) {
-				rightValue = itr.next();
+			int count = itr.next(values);
+			if (count > 0) {
+				leftValue = values[0];
+			}
+			if (count > 1) {
+				rightValue = values[1];
 			}
 
 			long selectedValue = (long) (rightValue * factor + leftValue * (1 - factor));
@@ -329,11 +343,12 @@ public class GraphPanel extends JPanel {
 			int pidWidth = 40;
 
 			TopList topList = selectedTopLists.get(topListIdx);
-			for (TopList.Entry entry : topList.entries) {
+			for (int i = 0; i < topList.size(); i++) {
+				ProcessInfo info = graphs.get(topListIdx).topLists.processInfo(topList.uniqueIds[i]);
 				String usage = "";
-				String name = entry.process.fileName;
-				String pid = Long.toString(entry.process.id);
-				usage = TextUtils.valueToString(entry.value, graphs.get(topListIdx).valueType);
+				String name = info.fileName;
+				String pid = Long.toString(info.id);
+				usage = TextUtils.valueToString(topList.values[i], graphs.get(topListIdx).valueType);
 
 				if (name.isEmpty()) {
 					name = "<unnamed>";
@@ -349,7 +364,7 @@ public class GraphPanel extends JPanel {
 				pids.add(pid);
 			}
 			width = Math.max(width, usageWidth + nameWidth + pidWidth + columnOffset * 2 + insets * 2);
-			height += computeTextHeight(topList.entries.length + 3/4f, metrics);
+			height += computeTextHeight(topList.size() + 3/4f, metrics);
 
 			columnPositions[1] = usageWidth + columnOffset;
 			columnPositions[2] = columnPositions[1] + nameWidth + columnOffset;
@@ -376,7 +391,7 @@ public class GraphPanel extends JPanel {
 		if (topListIdx != -1) {
 			g2d.drawLine(x + insets/2, y + metrics.getHeight()/2, x + width - insets/2, y + metrics.getHeight()/2);
 			y += metrics.getHeight() * 3 / 4;
-			for (int i = 0; i < selectedTopLists.get(topListIdx).entries.length; i++) {
+			for (int i = 0; i < selectedTopLists.get(topListIdx).size(); i++) {
 				g2d.drawString(usages.get(i), x + insets + columnPositions[0], y + metrics.getHeight() * (i + 1) - metrics.getDescent());
 				g2d.drawString(names.get(i), x + insets + columnPositions[1], y + metrics.getHeight() * (i + 1) - metrics.getDescent());
 				g2d.drawString(pids.get(i), x + insets + columnPositions[2], y + metrics.getHeight() * (i + 1) - metrics.getDescent());
@@ -420,7 +435,7 @@ public class GraphPanel extends JPanel {
 	}
 
 	public void newDatapoint() {
-		moveDataWindow = dataEndIndex == graphs.get(0).measurements.size() - 1;
+		moveDataWindow = dataEndIndex == graphs.get(0).length - 1;
 		if (!moveDataWindow && dataStartIndex > 0) {
 			dataStartIndex -= 1;
 			dataEndIndex -= 1;
@@ -484,19 +499,25 @@ public class GraphPanel extends JPanel {
 
 
 	public static class Graph {
-		public final Measurements<Long> measurements;
-		public final MeasurementAverager<Long> measurementAverager;
+		public final LongMeasurements measurements;
+		public final int length; // In data collection ticks, the indices of the graph panels are ticks
+		public final int fullResolutionLength; // The newest part of the length that is not rolled up
+		public final MeasurementAveragerForLong measurementAverager;
+		public final TopListMeasurementContainer topLists;
 		public final MeasurementAverager<TopList> topListAverager;
 
 		public final GraphType graphType;
 		public final ValueType valueType;
 		public final Style style;
 
-		private Graph(Measurements<Long> measurements, Measurements<TopList> topLists, GraphType graphType, ValueType valueType, Style style) {
+		private Graph(LongMeasurements measurements, TopListMeasurementContainer topLists, GraphType graphType, ValueType valueType, Style style) {
 			this.measurements = measurements;
+			this.length = measurements.size() * measurements.samplePeriod();
+			this.fullResolutionLength = measurements.fullResolutionSize() * measurements.samplePeriod();
 			this.measurementAverager = new MeasurementAveragerForLong(measurements);
+			this.topLists = topLists;
 			if (topLists != null) {
-				this.topListAverager = new MeasurementAveragerForTopList(topLists);
+				this.topListAverager = new MeasurementAveragerForTopList(topLists, length);
 			} else {
 				this.topListAverager = null;
 			}
@@ -507,21 +528,21 @@ public class GraphPanel extends JPanel {
 		
 		
 		public static class GraphBuilder {
-			private final Measurements<Long> measurements;
-			private Measurements<TopList> topList;
+			private final LongMeasurements measurements;
+			private TopListMeasurementContainer topList;
 
 			private final GraphType graphType;
 
 			private ValueType valueType;
 			private Style style;
 
-			public GraphBuilder(Measurements<Long> measurements, GraphType graphType) {
+			public GraphBuilder(LongMeasurements measurements, GraphType graphType) {
 				this.measurements = measurements;
 				this.graphType = graphType;
 				this.style = new Style();
 			}
 
-			public GraphBuilder topList(Measurements<TopList> topList) {
+			public GraphBuilder topList(TopListMeasurementContainer topList) {
 				this.topList = topList;
 				return this;
 			}
@@ -541,158 +562,4 @@ public class GraphPanel extends JPanel {
 			}
 		}
 	}
-
-
-	public static class DoubleToLong implements Measurements<Long> {
-		private final Measurements<Double> iterable;
-
-		public DoubleToLong(Measurements<Double> iterable) {
-			this.iterable = iterable;
-		}
-
-		@Override
-		public void copyFrom(Measurements<Long> other) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void copyDelta(Measurements<Long> other) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void addValue(Long value) {
-			iterable.addValue(value / (double) Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public int size() {
-			return iterable.size();
-		}
-
-		@Override
-		public int realSize() {
-			return iterable.realSize();
-		}
-
-		@Override
-		public Long newest() {
-			return (long) (iterable.newest() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Long oldest() {
-			return (long) (iterable.oldest() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Long min() {
-			return (long) (iterable.min() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Long max() {
-			return (long) (iterable.max() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Iterator<Long> getRangeIterator(int startIndex, int endIndex) {
-			return new ConversionIterator(iterable.getRangeIterator(startIndex, endIndex));
-		}
-
-		private static class ConversionIterator implements Iterator<Long> {
-			private final Iterator<Double> sourceIterator;
-
-			ConversionIterator(Iterator<Double> sourceIterator) {
-				this.sourceIterator = sourceIterator;
-			}
-
-			@Override
-			public Long next() {
-				return (long) (sourceIterator.next() * Config.DOUBLE_TO_LONG);
-			}
-
-			@Override
-			public boolean hasNext() {
-				return sourceIterator.hasNext();
-			}
-		}
-	}
-
-
-	public static class ShortToLong implements Measurements<Long> {
-		private final Measurements<Short> iterable;
-
-		public ShortToLong(Measurements<Short> iterable) {
-			this.iterable = iterable;
-		}
-
-		@Override
-		public void copyFrom(Measurements<Long> other) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void copyDelta(Measurements<Long> other) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void addValue(Long value) {
-			iterable.addValue((short) value.longValue());
-		}
-
-		@Override
-		public int size() {
-			return iterable.size();
-		}
-
-		@Override
-		public int realSize() {
-			return iterable.realSize();
-		}
-
-		@Override
-		public Long newest() {
-			return (long) iterable.newest();
-		}
-
-		@Override
-		public Long oldest() {
-			return (long) (iterable.oldest() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Long min() {
-			return (long) (iterable.min() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Long max() {
-			return (long) (iterable.max() * Config.DOUBLE_TO_LONG);
-		}
-
-		@Override
-		public Iterator<Long> getRangeIterator(int startIndex, int endIndex) {
-			return new ConversionIterator(iterable.getRangeIterator(startIndex, endIndex));
-		}
-
-		private static class ConversionIterator implements Iterator<Long> {
-			private final Iterator<Short> sourceIterator;
-
-			ConversionIterator(Iterator<Short> sourceIterator) {
-				this.sourceIterator = sourceIterator;
-			}
-
-			@Override
-			public Long next() {
-				return (long) sourceIterator.next();
-			}
-
-			@Override
-			public boolean hasNext() {
-				return sourceIterator.hasNext();
-			}
-		}
-	}
 }
\ No newline at end of file
@@ -13,11 +13,17 @@ package taskmanager.ui.performance;
 
 import taskmanager.Measurements;
 
-import java.util.Iterator;
-
+/**
+ * Computes averages of measurements for the points of a graph. Indices are in data collection ticks, they are mapped to
+ * the values of the measurements using their sample period (aligned so the newest tick is the newest value).
+ */
 public abstract class MeasurementAverager<T> {
-	private Measurements<T> measurements;
-	private Iterator<T> iterator;
+	protected final Measurements<T> measurements;
+	private final int length;
+	private final int samplePeriod;
+	private boolean isReset;
+	private int position;
+	private int lastPosition;
 
 	private int offset;
 	private int numPoints;
@@ -28,7 +34,17 @@ public abstract class MeasurementAverager<T> {
 	private int stepSize;
 
 	public MeasurementAverager(Measurements<T> measurements) {
+		this(measurements, measurements.size() * measurements.samplePeriod());
+	}
+
+	/**
+	 * Creates an averager for measurements that only cover the newest ticks of an interval with the given length (if
+	 * they are shown together with measurements with a longer history), older averages are empty.
+	 */
+	public MeasurementAverager(Measurements<T> measurements, int length) {
 		this.measurements = measurements;
+		this.length = length;
+		this.samplePeriod = measurements.samplePeriod();
 		this.stepSize = 1;
 	}
 
@@ -48,18 +64,81 @@ public abstract class MeasurementAverager<T> {
 		int start = this.start - offset + idx * stepSize;
 		int end = this.end - offset;
 
-		iterator = measurements.getRangeIterator(start, end - 1);
+		if (start < 0 || start >= length || end - 1 < start || end - 1 >= length)
+			throw new IllegalArgumentException("Indices out of range: [" + start + ", " + (end - 1) + "], size: " + length);
+
+		isReset = true;
+		position = start;
+		lastPosition = end - 1;
 		numPoints = (end - start) / stepSize - 1;
 	}
 
 	public T next() {
-		return computeAverage(iterator, stepSize);
+		if (!hasNext()) {
+			return emptyAverage();
+		}
+
+		int startIndex = valueIndex(position);
+		T average = startIndex < 0 ? emptyAverage() : computeAverage(startIndex, valuesPerStep());
+		position += stepSize;
+		return average;
+	}
+
+	/**
+	 * Returns the index of the value that was sampled at the tick position, negative if it is older than the
+	 * measurements.
+	 */
+	protected int valueIndex(int position) {
+		return measurements.size() - 1 - (length - 1 - position) / samplePeriod;
+	}
+
+	/**
+	 * Returns the number of values to average for each step, at least one even when zoomed in so that several steps
+	 * fall on the same value.
+	 */
+	protected int valuesPerStep() {
+		return Math.max(1, stepSize / samplePeriod);
+	}
+
+	/**
+	 * Returns true if consecutive steps start at evenly spaced values, which is required to read several averages at
+	 * once.
+	 */
+	protected boolean hasEvenSteps() {
+		return stepSize % samplePeriod == 0;
 	}
 
-	protected abstract T computeAverage(Iterator<T> iterator, int stepSize);
+	/**
+	 * Computes the average of the stepSize values starting at startIndex.
+	 */
+	protected abstract T computeAverage(int startIndex, int stepSize);
+
+	protected abstract T emptyAverage();
 
 	public boolean hasNext() {
-		return iterator != null && iterator.hasNext();
+		return isReset && position <= lastPosition;
+	}
+
+	protected int position() {
+		return position;
+	}
+
+	protected int remaining() {
+		return hasNext() ? (lastPosition - position) / stepSize + 1 : 0;
+	}
+
+	/**
+	 * Moves past the next count averages and returns the start index of the first one, for subclasses that compute
+	 * several averages at once.
+	 */
+	protected int advance(int count) {
+		int start = position;
+		position += count * stepSize;
+		return start;
+	}
+
+	protected int stepSize() {
+		return stepSize;
 	}
 
 	public int numPoints() {
@@ -11,24 +11,39 @@
 
 package taskmanager.ui.performance;
 
-import taskmanager.Measurements;
-
-import java.util.Iterator;
+import taskmanager.LongMeasurements;
 
 public class MeasurementAveragerForLong extends MeasurementAverager<Long> {
-	public MeasurementAveragerForLong(Measurements<Long> measurements) {
+	private final LongMeasurements longMeasurements;
+
+	public MeasurementAveragerForLong(LongMeasurements measurements) {
 		super(measurements);
+		this.longMeasurements = measurements;
 	}
 
 	@Override
-	protected Long computeAverage(Iterator<Long> iterator, int stepSize) {
-		if (iterator != null && iterator.hasNext()) {
-			long total = 0;
-			for (int i = 0; i < stepSize; i++) {
-				total += iterator.next();
+	protected Long computeAverage(int startIndex, int stepSize) {
+		return longMeasurements.sum(startIndex, startIndex + stepSize - 1) / stepSize;
+	}
+
+	/**
+	 * Reads the next averages into the destination with a single call to the measurements, returns the number of
+	 * averages that were read.
+	 */
+	public int next(long[] destination) {
+		int count = Math.min(destination.length, remaining());
+		if (count > 0 && hasEvenSteps() && valueIndex(position()) >= 0) {
+			longMeasurements.averageRange(valueIndex(advance(count)), valuesPerStep(), count, destination);
+		} else {
+			for (int i = 0; i < count; i++) {
+				destination[i] = next();
 			}
-			return total / stepSize;
 		}
+		return count;
+	}
+
+	@Override
+	protected Long emptyAverage() {
 		return 0L;
 	}
 }
\ No newline at end of file
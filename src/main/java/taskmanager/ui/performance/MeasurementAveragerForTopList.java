@@ -13,43 +13,49 @@ package taskmanager.ui.performance;
 
 import config.Config;
 import taskmanager.Measurements;
-import taskmanager.data.Process;
 import taskmanager.data.TopList;
-import taskmanager.data.TopList.Entry;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class MeasurementAveragerForTopList extends MeasurementAverager<TopList> {
 	private static final float MISSING_PROCESS_USAGE_FRACTION = 0.1f;
 
-	public MeasurementAveragerForTopList(Measurements<TopList> measurements) {
-		super(measurements);
+	private TopList[] buffer;
+
+	public MeasurementAveragerForTopList(Measurements<TopList> measurements, int length) {
+		super(measurements, length);
+		buffer = new TopList[0];
 	}
 
 	@Override
-	protected TopList computeAverage(Iterator<TopList> iterator, int stepSize) {
-		TopList latestTopList = TopList.EMPTY;
-		if (iterator != null && iterator.hasNext()) {
-			List<TopList> topLists = new ArrayList<>(stepSize);
-			TopList last = null;
-			for (int i = 0; i < stepSize; i++) {
-				TopList topList = iterator.next();
-				if (topList != last) {
-					topLists.add(topList);
-					last = topList;
-				}
+	protected TopList computeAverage(int startIndex, int stepSize) {
+		if (buffer.length < stepSize) {
+			buffer = new TopList[stepSize];
+		}
+		measurements.readRange(startIndex, startIndex + stepSize - 1, buffer);
+
+		List<TopList> topLists = new ArrayList<>(stepSize);
+		TopList last = null;
+		for (int i = 0; i < stepSize; i++) {
+			TopList topList = buffer[i];
+			if (topList != last) {
+				topLists.add(topList);
+				last = topList;
 			}
-			latestTopList = averageOf(topLists);
 		}
-		return latestTopList;
+		Arrays.fill(buffer, 0, stepSize, null);
+		return averageOf(topLists);
+	}
+
+	@Override
+	protected TopList emptyAverage() {
+		return TopList.EMPTY;
 	}
 
 
@@ -63,13 +69,14 @@ public class MeasurementAveragerForTopList extends MeasurementAverager<TopList>
 		}
 
 		Map<Long, Long> idToTotal = new HashMap<>();
-		Map<Long, Process> idToProcess = topLists.stream()
-				.flatMap(e -> Arrays.stream(e.entries))
-				.map(e -> e.process)
-				.distinct()
-				.collect(Collectors.toMap(p -> p.uniqueId, p -> p));
+		Set<Long> allIds = new HashSet<>();
+		for (TopList topList : topLists) {
+			for (long id : topList.uniqueIds) {
+				allIds.add(id);
+			}
+		}
 
-		if (idToProcess.isEmpty()) {
+		if (allIds.isEmpty()) {
 			return TopList.EMPTY;
 		}
 
@@ -77,14 +84,14 @@ public class MeasurementAveragerForTopList extends MeasurementAverager<TopList>
 		for (TopList topList : topLists) {
 			seenIds.clear();
 			long totalUsageInTopList = 0;
-			for (Entry entry : topList.entries) {
-				long id = entry.process.uniqueId;
-				idToTotal.put(id, entry.value + idToTotal.getOrDefault(id, 0L));
-				totalUsageInTopList += entry.value;
+			for (int i = 0; i < topList.size(); i++) {
+				long id = topList.uniqueIds[i];
+				idToTotal.put(id, topList.values[i] + idToTotal.getOrDefault(id, 0L));
+				totalUsageInTopList += topList.values[i];
 				seenIds.add(id);
 			}
 
-			for (Long id : idToProcess.keySet()) {
+			for (Long id : allIds) {
 				if (!seenIds.contains(id)) {
 					idToTotal.put(id, (long) (totalUsageInTopList * 0.1 + idToTotal.getOrDefault(id, 0L)));
 				}
@@ -94,12 +101,11 @@ public class MeasurementAveragerForTopList extends MeasurementAverager<TopList>
 		List<Map.Entry<Long, Long>> entries = new ArrayList<>(idToTotal.entrySet());
 		entries.sort((a, b) -> signum(b.getValue() - a.getValue()));
 
-		int topListSize = Math.min(Config.getInt(Config.KEY_METRIC_TOP_LIST_SIZE), idToProcess.size());
+		int topListSize = Math.min(Config.getInt(Config.KEY_METRIC_TOP_LIST_SIZE), allIds.size());
 		TopList topList = new TopList(topListSize);
 		for (int i = 0; i < topListSize; i++) {
-			long id = entries.get(i).getKey();
-			long score = entries.get(i).getValue() / topLists.size();
-			topList.entries[i] = new Entry(score, idToProcess.get(id));
+			topList.uniqueIds[i] = entries.get(i).getKey();
+			topList.values[i] = entries.get(i).getValue() / topLists.size();
 		}
 
 		return topList;
@@ -112,35 +118,46 @@ public class MeasurementAveragerForTopList extends MeasurementAverager<TopList>
 			return l1;
 		}
 
-		Map<Long, Long> ids1 = Arrays.stream(l1.entries).collect(Collectors.toMap(e -> e.process.uniqueId, e -> e.value));
-		Map<Long, Long> ids2 = Arrays.stream(l2.entries).collect(Collectors.toMap(e -> e.process.uniqueId, e -> e.value));
+		Map<Long, Long> ids1 = toMap(l1);
+		Map<Long, Long> ids2 = toMap(l2);
 
-		long sum1 = ids1.values().stream().reduce(0L, Long::sum);
-		long sum2 = ids2.values().stream().reduce(0L, Long::sum);
+		long sum1 = Arrays.stream(l1.values).sum();
+		long sum2 = Arrays.stream(l2.values).sum();
 
-		List<TopList.Entry> allEntries = new ArrayList<>();
-		for (TopList.Entry e1 : l1.entries) {
-			long left = e1.value;
-			long right = ids2.getOrDefault(e1.process.uniqueId, (long) (sum2 * MISSING_PROCESS_USAGE_FRACTION));
-			allEntries.add(new TopList.Entry((long) (left * (1 - factor) + right * factor), e1.process));
+		Map<Long, Long> weighted = new HashMap<>();
+		for (int i = 0; i < l1.size(); i++) {
+			long left = l1.values[i];
+			long right = ids2.getOrDefault(l1.uniqueIds[i], (long) (sum2 * MISSING_PROCESS_USAGE_FRACTION));
+			weighted.put(l1.uniqueIds[i], (long) (left * (1 - factor) + right * factor));
 		}
-		for (TopList.Entry e2 : l2.entries) {
-			if (!ids1.containsKey(e2.process.uniqueId)) {
+		for (int i = 0; i < l2.size(); i++) {
+			if (!ids1.containsKey(l2.uniqueIds[i])) {
 				long left = (long) (sum1 * MISSING_PROCESS_USAGE_FRACTION);
-				long right = e2.value;
-				allEntries.add(new TopList.Entry((long) (left * (1 - factor) + right * factor), e2.process));
+				long right = l2.values[i];
+				weighted.put(l2.uniqueIds[i], (long) (left * (1 - factor) + right * factor));
 			}
 		}
-		allEntries.sort((e1, e2) -> signum(e2.value - e1.value));
+
+		List<Map.Entry<Long, Long>> allEntries = new ArrayList<>(weighted.entrySet());
+		allEntries.sort((e1, e2) -> signum(e2.getValue() - e1.getValue()));
 
 		int topListSize = Config.getInt(Config.KEY_METRIC_TOP_LIST_SIZE);
 		TopList topList = new TopList(Math.min(topListSize, allEntries.size()));
-		for (int i = 0; i < topListSize; i++) {
-			topList.entries[i] = allEntries.get(i);
+		for (int i = 0; i < topList.size(); i++) {
+			topList.uniqueIds[i] = allEntries.get(i).getKey();
+			topList.values[i] = allEntries.get(i).getValue();
 		}
 		return topList;
 	}
 
+	private static Map<Long, Long> toMap(TopList topList) {
+		Map<Long, Long> result = new HashMap<>();
+		for (int i = 0; i < topList.size(); i++) {
+			result.put(topList.uniqueIds[i], topList.values[i]);
+		}
+		return result;
+	}
+
 	private static int signum(long value) { // TODO Duplicated from InformationLoader
 		if (value > 0) {
 			return 1;
@@ -11,7 +11,7 @@
 
 package taskmanager.ui.performance;
 
-import config.Config;
+import taskmanager.Subsystem;
 
 import javax.swing.JLabel;
 import java.awt.Color;
@@ -29,6 +29,9 @@ public class TimelineGraphPanel extends GraphPanel {
 	private int startIndex;
 	private int endIndex;
 
+	// The timeline shows the values at full resolution, rolled up values are only shown when the user zooms out
+	private int fullResolutionStart;
+	private boolean isShowingWholeHistory;
 
 	private boolean highlightLeftBorder;
 	private boolean highlightRightBorder;
@@ -50,7 +53,11 @@ public class TimelineGraphPanel extends GraphPanel {
 	@Override
 	public void addGraph(Graph graph) {
 		super.addGraph(graph);
-		setDataIndexInterval(0, graph.measurements.size() - 1);
+		fullResolutionStart = graph.length - graph.fullResolutionLength;
+		setDataIndexInterval(fullResolutionStart, graph.length - 1);
+		if (fullResolutionStart > 0) {
+			setToolTipText("Double click to show the whole history");
+		}
 	}
 	
 	
@@ -62,14 +69,53 @@ public class TimelineGraphPanel extends GraphPanel {
 		this.group = group;
 	}
 	
-	protected void updateIndices(int start, int end) {
-		if (start != startIndex || end != endIndex) {
-			startIndex = start;
-			endIndex = end;
-			
+	/**
+	 * Selects the interval given in ticks relative to the newest tick. Timelines can have different lengths (other
+	 * rates or rolled up history), so the timelines in a group are aligned at their newest ticks.
+	 */
+	protected void updateIndices(int startOffset, int endOffset) {
+		int previousStart = startIndex;
+		int previousEnd = endIndex;
+		select(dataEndIndex + startOffset, dataEndIndex + endOffset);
+		if (startIndex != previousStart || endIndex != previousEnd) {
 			updateConnectedGraphs();
 			updateTimeLabel();
+			repaint();
+		}
+	}
+
+	/**
+	 * Selects the interval, clamped to the shown data and to at least the smallest interval.
+	 */
+	private void select(int start, int end) {
+		int smallestInterval = Math.min(smallestIntervalPoints(), dataEndIndex - dataStartIndex);
+		endIndex = Math.min(Math.max(end, dataStartIndex + smallestInterval), dataEndIndex);
+		startIndex = Math.max(Math.min(start, endIndex - smallestInterval), dataStartIndex);
+	}
+
+	private static int smallestIntervalPoints() {
+		return (int) (60 * Subsystem.tickRate());
+	}
+
+	private void selectionChanged() {
+		updateConnectedGraphs();
+		updateTimeLabel();
+		group.changed(this, startIndex - dataEndIndex, endIndex - dataEndIndex);
+		repaint();
+	}
+
+	/**
+	 * Switches between showing the values at full resolution and the whole history, including the rolled up values.
+	 */
+	private void toggleWholeHistory() {
+		if (fullResolutionStart == 0) {
+			return;
 		}
+
+		isShowingWholeHistory = !isShowingWholeHistory;
+		setDataIndexInterval(isShowingWholeHistory ? 0 : fullResolutionStart, dataEndIndex);
+		select(startIndex, endIndex);
+		selectionChanged();
 	}
 	
 	private void updateConnectedGraphs() {
@@ -83,9 +129,13 @@ public class TimelineGraphPanel extends GraphPanel {
 
 	private void updateTimeLabel() {
 		int diff = endIndex - startIndex;
-		int seconds = (int) (diff / Config.getFloat(Config.KEY_UPDATE_RATE));
+		int seconds = (int) (diff / Subsystem.tickRate());
 		
-		if (seconds > 60*3-1) {
+		if (seconds >= 60*60*24*3) {
+			timeLabel.setText("Displaying " + Math.round(seconds/(float)(60*60*24)) + " days");
+		} else if (seconds >= 60*60*3) {
+			timeLabel.setText("Displaying " + Math.round(seconds/(float)(60*60)) + " hours");
+		} else if (seconds > 60*3-1) {
 			timeLabel.setText("Displaying " + Math.round(seconds/(float)60) + " minutes");
 		} else {
 			timeLabel.setText("Displaying " + seconds + " seconds");
@@ -123,14 +173,14 @@ public class TimelineGraphPanel extends GraphPanel {
 
 	private int indexToPosition(int idx) {
 		int width = dataEndIndex - dataStartIndex;
-		float fraction = clamp(idx / (float)width, 0, 1);
+		float fraction = clamp((idx - dataStartIndex) / (float)width, 0, 1);
 		return (int) (getWidth() * fraction);
 	}
 
 	private int positionToIndex(int pos) {
 		int width = dataEndIndex - dataStartIndex;
 		float fraction = clamp(pos / (float) getWidth(), 0, 1);
-		return (int) (width * fraction);
+		return dataStartIndex + (int) (width * fraction);
 	}
 	
 	private float clamp(float value, float min, float max) {
@@ -143,6 +193,11 @@ public class TimelineGraphPanel extends GraphPanel {
 
 		startIndex = connectedGraphs.get(0).dataStartIndex;
 		endIndex = connectedGraphs.get(0).dataEndIndex;
+		if (startIndex < dataStartIndex) {
+			// The selection drifted out of the full resolution window
+			select(startIndex, endIndex);
+			updateConnectedGraphs();
+		}
 	}
 	
 	
@@ -157,6 +212,13 @@ public class TimelineGraphPanel extends GraphPanel {
 		private int grabDistanceRight;
 		
 		private boolean isMouseOver;
+
+		@Override
+		public void mouseClicked(MouseEvent e) {
+			if (e.getButton() == MouseEvent.BUTTON1 && e.getClickCount() == 2) {
+				toggleWholeHistory();
+			}
+		}
 		
 		@Override
 		public void mousePressed(MouseEvent e) {
@@ -198,35 +260,18 @@ public class TimelineGraphPanel extends GraphPanel {
 		public void mouseDragged(MouseEvent e) {
 			int x = e.getX();
 			
-			final int smallestIntervalPoints = (int)(60 * Config.getFloat(Config.KEY_UPDATE_RATE));
-			
 			if (isMovingLeftBorder) {
-				startIndex = positionToIndex(x);
-				startIndex = Math.min(startIndex, endIndex - smallestIntervalPoints);
-
-				updateConnectedGraphs();
-				updateTimeLabel();
-				group.changed(TimelineGraphPanel.this, startIndex, endIndex);
-				
-				repaint();
+				select(positionToIndex(x), endIndex);
+				selectionChanged();
 			} else if (isMovingRightBorder) {
-				endIndex = positionToIndex(x);
-				endIndex = Math.max(endIndex, startIndex + smallestIntervalPoints);
-
-				updateConnectedGraphs();
-				updateTimeLabel();
-				group.changed(TimelineGraphPanel.this, startIndex, endIndex);
-				
-				repaint();
+				int start = startIndex;
+				select(start, Math.max(positionToIndex(x), start + smallestIntervalPoints()));
+				selectionChanged();
 			} else if (isMovingWholeInterval) {
 				int intervalWidth = endIndex - startIndex;
-				startIndex = Math.min(dataEndIndex - intervalWidth, Math.max(0, positionToIndex(x) - grabDistanceLeft));
-				endIndex = Math.max(intervalWidth, Math.min(dataEndIndex, positionToIndex(x) + grabDistanceRight));
-
-				updateConnectedGraphs();
-				group.changed(TimelineGraphPanel.this, startIndex, endIndex);
-				
-				repaint();
+				startIndex = Math.min(dataEndIndex - intervalWidth, Math.max(dataStartIndex, positionToIndex(x) - grabDistanceLeft));
+				endIndex = Math.max(dataStartIndex + intervalWidth, Math.min(dataEndIndex, positionToIndex(x) + grabDistanceRight));
+				selectionChanged();
 			}
 			
 			updateHighlight(x);
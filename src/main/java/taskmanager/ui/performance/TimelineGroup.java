@@ -31,11 +31,15 @@ public class TimelineGroup {
 		this.areLinked = areLinked;
 	}
 	
-	protected void changed(TimelineGraphPanel source, int startIdx, int endIdx) {
+	/**
+	 * The offsets are in ticks relative to the newest tick of the source, see
+	 * {@link TimelineGraphPanel#updateIndices(int, int)}.
+	 */
+	protected void changed(TimelineGraphPanel source, int startOffset, int endOffset) {
 		if (areLinked) {
 			for (TimelineGraphPanel timeline : timelines) {
 				if (timeline != source) {
-					timeline.updateIndices(startIdx, endIdx);
+					timeline.updateIndices(startOffset, endOffset);
 				}
 			}
 		}
@@ -11,7 +11,7 @@
 
 package taskmanager.ui.performance.common;
 
-import taskmanager.data.TopList;
+import taskmanager.data.TopListMeasurementContainer.ProcessInfo;
 import taskmanager.ui.TextUtils;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.callbacks.ShowProcessCallback;
@@ -19,8 +19,8 @@ import taskmanager.ui.callbacks.ShowProcessCallback;
 import javax.swing.JMenuItem;
 
 public class JumpToProcessMenuItem extends JMenuItem {
-	public JumpToProcessMenuItem(TopList.Entry entry, ValueType valueType, ShowProcessCallback showProcessCallback) {
-		super(String.format("(%s) %s (%d)", TextUtils.valueToString(entry.value, valueType), entry.process.fileName, entry.process.id));
-		addActionListener(e -> showProcessCallback.showProcess(entry.process.uniqueId));
+	public JumpToProcessMenuItem(long uniqueId, long value, ProcessInfo info, ValueType valueType, ShowProcessCallback showProcessCallback) {
+		super(String.format("(%s) %s (%d)", TextUtils.valueToString(value, valueType), info.fileName, info.id));
+		addActionListener(e -> showProcessCallback.showProcess(uniqueId));
 	}
 }
@@ -11,8 +11,8 @@
 
 package taskmanager.ui.performance.common;
 
-import taskmanager.Measurements;
 import taskmanager.data.TopList;
+import taskmanager.data.TopListMeasurementContainer;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.callbacks.ShowProcessCallback;
 
@@ -25,7 +25,7 @@ import javax.swing.event.PopupMenuListener;
 public class TopListMenu extends JMenu {
 	private JMenuItem[] topListMenuItems;
 
-	public TopListMenu(JPopupMenu parent, Measurements<TopList> topList, ValueType valueType,
+	public TopListMenu(JPopupMenu parent, TopListMeasurementContainer topList, ValueType valueType,
 					   ShowProcessCallback showProcessCallback) {
 		super("Jump to top user ");
 		topListMenuItems = new JMenuItem[0];
@@ -36,10 +36,11 @@ public class TopListMenu extends JMenu {
 				for (JMenuItem jMenuItem : topListMenuItems) {
 					remove(jMenuItem);
 				}
-				TopList.Entry[] entries = topList.newest().entries;
-				topListMenuItems = new JMenuItem[entries.length];
-				for (int i = 0; i < entries.length; i++) {
-					topListMenuItems[i] = new JumpToProcessMenuItem(entries[i], valueType, showProcessCallback);
+				TopList newest = topList.newest();
+				topListMenuItems = new JMenuItem[newest.size()];
+				for (int i = 0; i < newest.size(); i++) {
+					long uniqueId = newest.uniqueIds[i];
+					topListMenuItems[i] = new JumpToProcessMenuItem(uniqueId, newest.values[i], topList.processInfo(uniqueId), valueType, showProcessCallback);
 					add(topListMenuItems[i]);
 				}
 			}
@@ -11,8 +11,7 @@
 
 package taskmanager.ui.performance.cpu;
 
-import taskmanager.Measurements;
-import taskmanager.data.TopList;
+import taskmanager.data.TopListMeasurementContainer;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.callbacks.ShowProcessCallback;
 import taskmanager.ui.performance.common.TopListMenu;
@@ -22,7 +21,7 @@ import javax.swing.JMenu;
 import javax.swing.JPopupMenu;
 
 public class CpuContextMenu extends JPopupMenu {
-	public CpuContextMenu(CpuPanel panel, Measurements<TopList> cpuTopList, ShowProcessCallback callback) {
+	public CpuContextMenu(CpuPanel panel, TopListMeasurementContainer cpuTopList, ShowProcessCallback callback) {
 		ShowTotalCpuMenuItem totalCpu = new ShowTotalCpuMenuItem(panel);
 		ShowCoresCpuMenuItem coresCpu = new ShowCoresCpuMenuItem(panel);
 		
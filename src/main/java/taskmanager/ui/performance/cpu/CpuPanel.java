@@ -13,7 +13,7 @@ package taskmanager.ui.performance.cpu;
 
 import config.Config;
 import net.miginfocom.swing.MigLayout;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
 import taskmanager.data.SystemInformation;
 import taskmanager.platform.linux.LinuxExtraInformation;
 import taskmanager.platform.osx.OsXExtraInformation;
@@ -23,7 +23,6 @@ import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.callbacks.ShowProcessCallback;
 import taskmanager.ui.performance.GraphPanel;
 import taskmanager.ui.performance.GraphPanel.Graph.GraphBuilder;
-import taskmanager.ui.performance.GraphPanel.ShortToLong;
 import taskmanager.ui.performance.GraphType;
 import taskmanager.ui.performance.GraphTypeButton;
 import taskmanager.ui.performance.RatioItemPanel;
@@ -36,7 +35,7 @@ import javax.swing.JPanel;
 import java.awt.GridLayout;
 
 public class CpuPanel extends JPanel {
-	private final Measurements<Long> cpuUsage;
+	private final LongMeasurements cpuUsage;
 
 	private final JPanel containerPanel;
 
@@ -55,11 +54,14 @@ public class CpuPanel extends JPanel {
 	// Linux & Mac specific
 	private final RatioItemPanel fileDescriptorsLabel;
 
+	// Linux specific
+	private final InformationItemPanel stalledReadsLabel;
+
 	private GraphTypeButton connectedButton;
 
 
 	public CpuPanel(TimelineGroup timelineGroup, SystemInformation systemInformation, ShowProcessCallback showProcessCallback) {
-		cpuUsage = new ShortToLong(systemInformation.cpuUsageTotal);
+		cpuUsage = systemInformation.cpuUsageTotal;
 
 		JLabel labelHeader = new JLabel("CPU");
 		labelHeader.setFont(labelHeader.getFont().deriveFont(24f));
@@ -89,6 +91,7 @@ public class CpuPanel extends JPanel {
 		uptimeLabel = new InformationItemPanel("Uptime", ValueType.TimeFull);
 		handlesLabel = new InformationItemPanel("Handles", ValueType.Raw);
 		fileDescriptorsLabel = new RatioItemPanel("Open file descriptors", ValueType.Raw);
+		stalledReadsLabel = new InformationItemPanel("Stalled reads", ValueType.Raw);
 
 		informationPanel.setLayout(new MigLayout("wrap 2"));
 		informationPanel.add(utilizationLabel);
@@ -98,6 +101,8 @@ public class CpuPanel extends JPanel {
 			informationPanel.add(handlesLabel);
 		} else if (systemInformation.extraInformation instanceof LinuxExtraInformation) {
 			informationPanel.add(fileDescriptorsLabel);
+			informationPanel.add(stalledReadsLabel);
+			stalledReadsLabel.setToolTipText(TextUtils.convertLineBreaksToHtml("The number of times reading the command line or path\n of a process timed out, e.g. because of a hung mount."));
 		}  else if (systemInformation.extraInformation instanceof OsXExtraInformation) {
 			informationPanel.add(fileDescriptorsLabel);
 			threadsLabel.setToolTipText(TextUtils.convertLineBreaksToHtml("This only counts the threads of the active\n user's processes (OSX only)."));
@@ -149,6 +154,7 @@ public class CpuPanel extends JPanel {
 			LinuxExtraInformation extraInformation = (LinuxExtraInformation) systemInformation.extraInformation;
 			fileDescriptorsLabel.setMaximum(extraInformation.openFileDescriptorsLimit);
 			fileDescriptorsLabel.updateValue(extraInformation.openFileDescriptors);
+			stalledReadsLabel.updateValue(extraInformation.stalledProcessReads);
 		} else if (systemInformation.extraInformation instanceof OsXExtraInformation) {
 			OsXExtraInformation extraInformation = (OsXExtraInformation) systemInformation.extraInformation;
 			fileDescriptorsLabel.setMaximum(extraInformation.openFileDescriptorsLimit);
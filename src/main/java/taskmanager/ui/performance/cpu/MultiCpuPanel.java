@@ -12,12 +12,10 @@
 package taskmanager.ui.performance.cpu;
 
 import config.Config;
-import taskmanager.Measurements;
 import taskmanager.data.SystemInformation;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.performance.GraphPanel;
 import taskmanager.ui.performance.GraphPanel.Graph.GraphBuilder;
-import taskmanager.ui.performance.GraphPanel.ShortToLong;
 import taskmanager.ui.performance.GraphType;
 import taskmanager.ui.performance.TimelineGraphPanel;
 
@@ -28,16 +26,13 @@ import java.awt.GridLayout;
 public class MultiCpuPanel extends JPanel {
 	private final GraphPanel[] graphs;
 
-	@SuppressWarnings("unchecked")
 	public MultiCpuPanel(TimelineGraphPanel timeline, SystemInformation systemInformation) {
 		int numCores = systemInformation.logicalProcessorCount;
-		Measurements<Long>[] measurements = new Measurements[numCores];
 		graphs = new GraphPanel[numCores];
 
 		for (int i = 0; i < numCores; i++) {
-			measurements[i] = new ShortToLong(systemInformation.cpuUsagePerCore[i]);
 			graphs[i] = new GraphPanel();
-			graphs[i].addGraph(new GraphBuilder(measurements[i], GraphType.Cpu).build());
+			graphs[i].addGraph(new GraphBuilder(systemInformation.cpuUsagePerCore[i], GraphType.Cpu).build());
 		}
 
 		int height = (int) (Math.log(numCores - 1) / Math.log(2)) + 1;
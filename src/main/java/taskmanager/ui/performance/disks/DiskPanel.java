@@ -17,7 +17,6 @@ import taskmanager.data.Disk;
 import taskmanager.ui.TextUtils;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.performance.GraphPanel;
-import taskmanager.ui.performance.GraphPanel.DoubleToLong;
 import taskmanager.ui.performance.GraphPanel.Graph;
 import taskmanager.ui.performance.GraphPanel.Graph.GraphBuilder;
 import taskmanager.ui.performance.GraphType;
@@ -67,14 +66,14 @@ public class DiskPanel extends JPanel {
 		transferGraph = new GraphPanel();
 		timelineGraph = new TimelineGraphPanel(labelMaxTime);
 
-		activeTimeGraph.addGraph(new GraphBuilder(new DoubleToLong(disk.activeFraction), GraphType.Disk).build());
+		activeTimeGraph.addGraph(new GraphBuilder(disk.activeFraction, GraphType.Disk).build());
 		Graph writeGraph = new GraphBuilder(disk.writeRate, GraphType.Disk).valueType(ValueType.BytesPerSecond).style(new Style(true, "W: ")).build();
 		Graph readGraph = new GraphBuilder(disk.readRate, GraphType.Disk).valueType(ValueType.BytesPerSecond).style(new Style(false, "R: ")).build();
 		transferGraph.setIsLogarithmic(true);
 		transferGraph.addGraph(writeGraph);
 		transferGraph.addGraph(readGraph);
 		timelineGraph.connectGraphPanels(this.activeTimeGraph, transferGraph);
-		timelineGraph.addGraph(new GraphBuilder(new DoubleToLong(disk.activeFraction), GraphType.Disk).build());
+		timelineGraph.addGraph(new GraphBuilder(disk.activeFraction, GraphType.Disk).build());
 		timelineGroup.add(timelineGraph);
 
 		this.activeTimeGraph.setMaxDatapointValue(Config.DOUBLE_TO_LONG);
@@ -136,9 +135,9 @@ public class DiskPanel extends JPanel {
 		activeTimeGraph.newDatapoint();
 		transferGraph.newDatapoint();
 		timelineGraph.newDatapoint();
-		connectedButton.newDatapoint((long)(disk.activeFraction.newest() * Config.DOUBLE_TO_LONG));
+		connectedButton.newDatapoint(disk.activeFraction.newest());
 		
-		activeTimePanel.updateValue((long)(disk.activeFraction.newest() * Config.DOUBLE_TO_LONG));
+		activeTimePanel.updateValue(disk.activeFraction.newest());
 		ioQueueLengthPanel.updateValue(disk.ioQueueLength.newest());
 		writeTransferPanel.updateValue(disk.writeRate.newest());
 		readTransferPanel.updateValue(disk.readRate.newest());
@@ -148,7 +147,7 @@ public class DiskPanel extends JPanel {
 	public GraphTypeButton createGraphButton(int index) {
 		connectedButton = new GraphTypeButton(String.format("Disk %d (%s)", disk.index, disk.name), index);
 		connectedButton.setIsLogarithmic(activeTimeGraph.isLogarithmic());
-		connectedButton.addGraph(new GraphBuilder(new DoubleToLong(disk.activeFraction), GraphType.Disk).build());
+		connectedButton.addGraph(new GraphBuilder(disk.activeFraction, GraphType.Disk).build());
 		connectedButton.setMaxDatapointValue(Config.DOUBLE_TO_LONG);
 		return connectedButton;
 	}
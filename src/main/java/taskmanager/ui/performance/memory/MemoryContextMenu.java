@@ -11,8 +11,7 @@
 
 package taskmanager.ui.performance.memory;
 
-import taskmanager.Measurements;
-import taskmanager.data.TopList;
+import taskmanager.data.TopListMeasurementContainer;
 import taskmanager.ui.TextUtils.ValueType;
 import taskmanager.ui.callbacks.ShowProcessCallback;
 import taskmanager.ui.performance.common.TopListMenu;
@@ -20,7 +19,7 @@ import taskmanager.ui.performance.common.TopListMenu;
 import javax.swing.JPopupMenu;
 
 public class MemoryContextMenu extends JPopupMenu {
-	public MemoryContextMenu(Measurements<TopList> memoryTopList, ShowProcessCallback callback) {
+	public MemoryContextMenu(TopListMeasurementContainer memoryTopList, ShowProcessCallback callback) {
 		add(new TopListMenu(this, memoryTopList, ValueType.Bytes, callback));
 	}
 }
\ No newline at end of file
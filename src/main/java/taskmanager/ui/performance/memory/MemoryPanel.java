@@ -12,7 +12,7 @@
 package taskmanager.ui.performance.memory;
 
 import net.miginfocom.swing.MigLayout;
-import taskmanager.Measurements;
+import taskmanager.LongMeasurements;
 import taskmanager.data.SystemInformation;
 import taskmanager.platform.linux.LinuxExtraInformation;
 import taskmanager.platform.osx.OsXExtraInformation;
@@ -34,7 +34,7 @@ import javax.swing.JPanel;
 import java.awt.Font;
 
 public class MemoryPanel extends JPanel {
-	private final Measurements<Long> memoryAvailable;
+	private final LongMeasurements memoryAvailable;
 
 	private final JLabel labelMaxMemory;
 
@@ -40,7 +40,6 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 public class Tray extends TrayIcon {
@@ -202,14 +201,16 @@ public class Tray extends TrayIcon {
 		final int samples = 4;
 		List<Double> ratios = new ArrayList<>();
 		if (graphTypeToDisplay == GraphType.Cpu) {
-			Iterator<Short> itr = info.cpuUsageTotal.getRangeIterator(info.cpuUsageTotal.size() - samples, info.cpuUsageTotal.size() - 1);
-			while (itr.hasNext()) {
-				ratios.add(itr.next() / (double) Config.DOUBLE_TO_LONG);
+			long[] values = new long[samples];
+			info.cpuUsageTotal.readRange(info.cpuUsageTotal.size() - samples, info.cpuUsageTotal.size() - 1, values);
+			for (long value : values) {
+				ratios.add(value / (double) Config.DOUBLE_TO_LONG);
 			}
 		} else if (graphTypeToDisplay == GraphType.Memory) {
-			Iterator<Long> itr = info.memoryUsed.getRangeIterator(info.memoryUsed.size() - samples, info.memoryUsed.size() - 1);
-			while (itr.hasNext()) {
-				ratios.add(itr.next() / (double) info.physicalMemoryTotal);
+			long[] values = new long[samples];
+			info.memoryUsed.readRange(info.memoryUsed.size() - samples, info.memoryUsed.size() - 1, values);
+			for (long value : values) {
+				ratios.add(value / (double) info.physicalMemoryTotal);
 			}
 		}
 